@@ -0,0 +1,63 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.Startup;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application against a private in-memory H2 database in MySQL mode,
+ * so benchmarks run offline without Docker or a MySQL server.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+        return start(List.of(), type, properties);
+    }
+
+    public static ConfigurableApplicationContext start(List<Class<?>> extraSources,
+                                                       WebApplicationType type, String... properties) {
+        List<String> defaults = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        // A property given twice on the command line would be bound as both values joined by a comma
+        for (String property : properties) {
+            String key = property.substring(0, property.indexOf('=') + 1);
+            defaults.removeIf(defaultProperty -> defaultProperty.startsWith(key));
+            defaults.add(property);
+        }
+
+        // Passed as command line arguments so they take precedence over application.yml
+        return new SpringApplicationBuilder(Startup.class)
+                .sources(extraSources.toArray(Class<?>[]::new))
+                .web(type)
+                .run(defaults.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    public static List<Person> people(int count, String prefix) {
+        List<Person> people = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            people.add(new Person("First" + i,
+                    "Last" + i,
+                    "Campinas - São Paulo",
+                    i % 2 == 0 ? "Male" : "Female",
+                    prefix + i + "@benchmark.com"));
+        }
+        return people;
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.CompressedPersonListCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of gzipping the full person list per compression level, which the precompressed
+ * list cache pays once per table version; the compressed sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonCompressionBenchmark {
+
+    @Param({"10000"})
+    public int listSize;
+
+    @Param({"1", "6", "9"})
+    public int gzipLevel;
+
+    private ObjectMapper mapper;
+    private List<Person> people;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        people = BenchmarkApplication.people(listSize, "gzip");
+        for (int i = 0; i < people.size(); i++) {
+            people.get(i).setId(i + 1L);
+            people.get(i).setVersion(0L);
+        }
+        json = mapper.writeValueAsBytes(people);
+        System.out.printf("%n%d people: json %d bytes, gzip level %d %d bytes%n",
+                listSize, json.length, gzipLevel, CompressedPersonListCache.gzip(json, gzipLevel).length);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws Exception {
+        return CompressedPersonListCache.gzip(mapper.writeValueAsBytes(people), gzipLevel);
+    }
+
+    @Benchmark
+    public byte[] serializeOnly() throws Exception {
+        return mapper.writeValueAsBytes(people);
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full PersonController dispatch (DispatcherServlet, message converters, services, H2) through MockMvc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonControllerBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private ObjectMapper mapper;
+    private List<PersonVO> people;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        mapper = context.getBean(ObjectMapper.class);
+        PersonServices services = context.getBean(PersonServices.class);
+        services.createAll(BenchmarkApplication.people(rows, "controller"));
+        people = services.findAll();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult findAll() throws Exception {
+        return mockMvc.perform(get("/person")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult findById() throws Exception {
+        return mockMvc.perform(get("/person/{id}", randomPerson().getId())).andReturn();
+    }
+
+    //404-heavy traffic: ids past the last person are never found
+    @Benchmark
+    public MvcResult findMissing() throws Exception {
+        return mockMvc.perform(get("/person/{id}", Long.MAX_VALUE - ThreadLocalRandom.current().nextInt(1000)))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult findPage() throws Exception {
+        return mockMvc.perform(get("/person")
+                .param("after", String.valueOf(randomPerson().getId()))
+                .param("limit", "100")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult create() throws Exception {
+        Person person = new Person("First", "Last", "Campinas - São Paulo", "Male",
+                "create" + sequence.incrementAndGet() + "@benchmark.com");
+        return mockMvc.perform(post("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsBytes(person))).andReturn();
+    }
+
+    private PersonVO randomPerson() {
+        return people.get(ThreadLocalRandom.current().nextInt(people.size()));
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonExportFormat;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /person/export over a million rows, as NDJSON or CSV straight from the JDBC cursor, against the
+ * /person/stream path it replaces for bulk reads (a PersonVO per row, serialized by Jackson).
+ * The table lives in an H2 file database and the fork gets a 256 MB heap, so a run that completes
+ * shows the export does not grow with the table; rows per second is rows / score.
+ * Run with {@code -prof gc}: gc.alloc.rate.norm is the allocation per export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class PersonExportBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"ndjson", "csv", "stream"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private PersonServices services;
+    private ObjectMapper mapper;
+
+    //Counts what is written and drops it, so only reading and formatting are measured
+    private static final class CountingOutputStream extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE,
+                "spring.datasource.url=jdbc:h2:file:./target/bench-export-" + UUID.randomUUID()
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        services = context.getBean(PersonServices.class);
+        mapper = context.getBean(ObjectMapper.class);
+
+        // Plain JDBC batches: loading a million rows through JPA would dominate the setup
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{i, "First" + i, "Last" + i, "Campinas - São Paulo",
+                    i % 2 == 0 ? "Male" : "Female", "export" + i + "@benchmark.com"});
+            if (batch.size() == 10_000 || i == rows) {
+                jdbcTemplate.batchUpdate("insert into person (id, first_name, last_name, address, gender, email, version) " +
+                        "values (?, ?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).execute("drop all objects delete files");
+        context.close();
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        switch (mode) {
+            case "ndjson" -> services.export(PersonExportFormat.NDJSON, out);
+            case "csv" -> services.export(PersonExportFormat.CSV, out);
+            default -> {
+                JsonGenerator generator = mapper.createGenerator(out);
+                generator.writeStartArray();
+                services.forEach(person -> {
+                    try {
+                        generator.writeObject(person);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+                generator.flush();
+            }
+        }
+        return out.bytes;
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findAll over a large table, loading managed entities (the former implementation) or PersonVO projections.
+ * Run with {@code -prof gc}: gc.alloc.rate.norm is the allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PersonFindAllMemoryBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"entity", "projection"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private PersonServices services;
+    private PersonRepository repository;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        services = context.getBean(PersonServices.class);
+        repository = context.getBean(PersonRepository.class);
+
+        // Plain JDBC batches: loading a million rows through JPA would dominate the setup
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{i, "First" + i, "Last" + i, "Campinas - São Paulo",
+                    i % 2 == 0 ? "Male" : "Female", "memory" + i + "@benchmark.com"});
+            if (batch.size() == 10_000 || i == rows) {
+                jdbcTemplate.batchUpdate("insert into person (id, first_name, last_name, address, gender, email, version) " +
+                        "values (?, ?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findAll() {
+        return mode.equals("entity")
+                ? repository.findAll().size()
+                : services.findAll().size();
+    }
+}
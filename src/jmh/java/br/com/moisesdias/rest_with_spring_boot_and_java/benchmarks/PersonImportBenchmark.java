@@ -0,0 +1,83 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonImportResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonExportFormat;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonImportServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PersonImportServices loading a CSV file into an empty table, with one parser thread against
+ * several parsing ahead of the writer; rows per second is rows / score. Every iteration starts from
+ * an empty table and no checkpoint, so every row is an insert. The score includes the rebuild of the
+ * suggest index that ends every import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersonImportBenchmark {
+
+    @Param({"200000"})
+    public int rows;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    //Rows per transaction and per checkpoint
+    @Param({"1000", "5000"})
+    public int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private PersonImportServices importServices;
+    private JdbcTemplate jdbcTemplate;
+    private Path csv;
+
+    @Setup
+    public void setup() throws IOException {
+        context = BenchmarkApplication.start(WebApplicationType.NONE,
+                "person.import.parallelism=" + parallelism, "person.import.chunk-size=" + chunkSize);
+        importServices = context.getBean(PersonImportServices.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        csv = Files.createDirectories(Path.of("target")).resolve("bench-import-" + UUID.randomUUID() + ".csv");
+        try (Writer writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("firstName,lastName,address,gender,email\n");
+            for (int i = 1; i <= rows; i++) {
+                writer.write("First" + i + ",Last" + i + ",\"Rua A, " + i + " - Campinas\","
+                        + (i % 2 == 0 ? "Male" : "Female") + ",import" + i + "@benchmark.com\n");
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() throws IOException {
+        jdbcTemplate.update("delete from person");
+        Files.deleteIfExists(csv.resolveSibling(csv.getFileName() + ".checkpoint.json"));
+        Files.deleteIfExists(csv.resolveSibling(csv.getFileName() + ".errors.ndjson"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        emptyTable();
+        Files.deleteIfExists(csv);
+        context.close();
+    }
+
+    @Benchmark
+    public PersonImportResultVO importCsv() throws IOException {
+        return importServices.importFile(csv, PersonExportFormat.CSV);
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost per wire format; the payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonSerializationBenchmark {
+
+    @Param({"1000"})
+    public int listSize;
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private Person person;
+    private List<Person> people;
+    private byte[] personBytes;
+    private byte[] peopleBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        // Same builder Spring Boot uses for the HTTP message converters
+        mapper = format.equals("cbor")
+                ? Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        people = BenchmarkApplication.people(listSize, "json");
+        for (int i = 0; i < people.size(); i++) {
+            people.get(i).setId(i + 1L);
+            people.get(i).setVersion(0L);
+        }
+        person = people.get(0);
+        personBytes = mapper.writeValueAsBytes(person);
+        peopleBytes = mapper.writeValueAsBytes(people);
+        System.out.printf("%n%s payload: one person %d bytes, %d people %d bytes%n",
+                format, personBytes.length, listSize, peopleBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializePerson() throws Exception {
+        return mapper.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public byte[] serializePersonList() throws Exception {
+        return mapper.writeValueAsBytes(people);
+    }
+
+    @Benchmark
+    public Person deserializePerson() throws Exception {
+        return mapper.readValue(personBytes, Person.class);
+    }
+
+    @Benchmark
+    public Person[] deserializePersonList() throws Exception {
+        return mapper.readValue(peopleBytes, Person[].class);
+    }
+}
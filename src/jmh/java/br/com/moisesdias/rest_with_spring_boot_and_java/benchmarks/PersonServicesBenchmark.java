@@ -0,0 +1,81 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonServicesBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private PersonServices services;
+    private List<Person> people;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        services = context.getBean(PersonServices.class);
+        services.createAll(BenchmarkApplication.people(rows, "services"));
+        // Detached entities, update takes a Person
+        people = context.getBean(PersonRepository.class).findAll();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PersonVO> findAll() {
+        return services.findAll();
+    }
+
+    @Benchmark
+    public Optional<PersonVO> findById() {
+        return services.findById(randomPerson().getId());
+    }
+
+    @Benchmark
+    public PersonPageVO findPage() {
+        return services.findPage(randomPerson().getId(), 100);
+    }
+
+    @Benchmark
+    public Person create() {
+        long n = sequence.incrementAndGet();
+        return services.create(new Person("First", "Last", "Campinas - São Paulo", "Male",
+                "create" + n + "@benchmark.com"));
+    }
+
+    @Benchmark
+    public Optional<Person> update() {
+        Person person = randomPerson();
+        person.setAddress("Street " + sequence.incrementAndGet());
+        return services.update(person, null);
+    }
+
+    private Person randomPerson() {
+        return people.get(ThreadLocalRandom.current().nextInt(people.size()));
+    }
+}
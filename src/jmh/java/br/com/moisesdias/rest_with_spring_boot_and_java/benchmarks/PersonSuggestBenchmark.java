@@ -0,0 +1,45 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSuggestionVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonSuggestIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead lookups against the in-memory suggest index, without Spring or a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonSuggestBenchmark {
+
+    @Param({"100000"})
+    public int people;
+
+    @Param({"first12", "last99999", "first1 last12", "zzz"})
+    public String query;
+
+    private PersonSuggestIndex index;
+
+    @Setup
+    public void setup() {
+        index = new PersonSuggestIndex();
+        List<Person> list = BenchmarkApplication.people(people, "suggest");
+        for (int i = 0; i < list.size(); i++) {
+            list.get(i).setId(i + 1L);
+            index.put(PersonSuggestionVO.of(PersonVO.of(list.get(i))));
+        }
+    }
+
+    @Benchmark
+    public List<PersonSuggestionVO> suggest() {
+        return index.suggest(query, 10);
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Simulates a remote database by sleeping {@code benchmark.db-latency-ms} every time a
+ * statement is prepared, while the pooled connection stays checked out.
+ * Registered explicitly as an application source, never picked up by component scanning.
+ */
+public class SlowDatabasePostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private long latencyMillis;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        latencyMillis = environment.getProperty("benchmark.db-latency-ms", Long.class, 0L);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || latencyMillis <= 0) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return slow(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return slow(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private Connection slow(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("prepare")) {
+                        Thread.sleep(latencyMillis);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
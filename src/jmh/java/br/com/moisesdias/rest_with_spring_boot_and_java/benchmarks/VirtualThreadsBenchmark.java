@@ -0,0 +1,111 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.benchmarks;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform vs virtual request threads over real HTTP, with a database that answers every
+ * statement after {@code dbLatencyMillis} and a pool of {@code poolSize} connections.
+ * <p>
+ * Most clients page through the table and pile up waiting for a connection; the rest read
+ * cached people that never touch the database. With platform threads the slow requests
+ * occupy every Tomcat worker and the cached reads queue behind them, with virtual threads
+ * they do not. Compare the p0.99 of {@code mixed:cachedRead} between the two modes.
+ * <p>
+ * Admission and coalescing are off and Hikari waits as long as it takes, so every request is served
+ * rather than shed; a response other than 200 fails the run instead of being timed.
+ * <p>
+ * {@code virtualThreads=true} only takes effect on Java 21 (build with {@code -Pjava21}).
+ * <p>
+ * The virtual thread scheduler gets at least 4 carriers: with a single one (a 1-CPU machine) the
+ * threads returning connections spin in Hikari's handoff yielding only to each other, and the run stalls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.virtualThreadScheduler.parallelism=4")
+public class VirtualThreadsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"50"})
+    public int dbLatencyMillis;
+
+    @Param({"10"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<PersonVO> cached;
+    private List<PersonVO> people;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkApplication.start(List.of(SlowDatabasePostProcessor.class),
+                WebApplicationType.SERVLET,
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "spring.datasource.hikari.connection-timeout=30000",
+                "person.admission.enabled=false",
+                "person.coalescing.enabled=false",
+                "benchmark.db-latency-ms=" + dbLatencyMillis);
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/person";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        PersonServices services = context.getBean(PersonServices.class);
+        services.createAll(BenchmarkApplication.people(1000, "threads"));
+        people = services.findAll();
+        cached = people.subList(0, 20);
+        for (PersonVO person : cached) {
+            get("/" + person.getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(250)
+    public int slowQuery() throws Exception {
+        return get("?limit=10&after=" + random(people).getId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public int cachedRead() throws Exception {
+        return get("/" + random(cached).getId());
+    }
+
+    private int get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("GET " + path + " answered " + status);
+        }
+        return status;
+    }
+
+    private static PersonVO random(List<PersonVO> from) {
+        return from.get(ThreadLocalRandom.current().nextInt(from.size()));
+    }
+}
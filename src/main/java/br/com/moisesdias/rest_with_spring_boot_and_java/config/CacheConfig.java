@@ -0,0 +1,17 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the in-process read-through cache used by the services; Boot only sets up its cache manager with caching enabled.
+ * Size, TTL and statistics are set by spring.cache.caffeine.spec.
+ * The people cache is applied by {@link br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonReadCache},
+ * the outermost advice: hits skip the admission limit and the transaction, and evictions happen after the commit.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PEOPLE_CACHE = "people";
+}
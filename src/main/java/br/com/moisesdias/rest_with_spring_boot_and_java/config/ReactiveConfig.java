@@ -0,0 +1,28 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * R2DBC access for the reactive profile, on the ConnectionFactory configured by spring.r2dbc.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    @Bean
+    DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    TransactionalOperator transactionalOperator(ConnectionFactory connectionFactory) {
+        // Not exposed as a TransactionManager bean, it would replace JPA's
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.logging.Logger;
+
+/**
+ * Polls the replica for its replication lag. Reads fall back to the primary while the lag is above
+ * the limit, unknown (replication stopped, query failing) or not measured yet.
+ */
+public class ReplicaLagMonitor {
+
+    //Column of SHOW REPLICA STATUS; any other lag query returns the lag in seconds as its first column
+    private static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Source";
+
+    private Logger logger = Logger.getLogger(ReplicaLagMonitor.class.getName());
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        Gauge.builder("person.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("person.datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${person.datasource.replica.lag-check-interval:PT5S}")
+    public void check() {
+        Long lag;
+        try {
+            lag = replica.query(lagQuery, rs -> rs.next() ? lagOf(rs) : null);
+        } catch (DataAccessException e) {
+            logger.warning("Could not read the replica lag: " + e.getMessage());
+            lag = null;
+        }
+        boolean usable = lag != null && lag <= maxLag.toSeconds();
+        if (usable != replicaUsable) {
+            logger.info(usable
+                    ? "Replica caught up (lag " + lag + "s), reads go to the replica"
+                    : "Replica lag " + (lag == null ? "unknown" : lag + "s") + ", reads go to the primary");
+        }
+        lagSeconds = lag == null ? Double.NaN : lag;
+        replicaUsable = usable;
+    }
+
+    private static Long lagOf(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int column = 1;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (MYSQL_LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                column = i;
+            }
+        }
+        long lag = rs.getLong(column);
+        return rs.wasNull() ? null : lag;
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.controllers;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
+import org.springframework.http.MediaType;
+
+/**
+ * Weak ETags built from a person version or the table version, shared by both controllers.
+ * Weak because Tomcat never compresses a response with a strong ETag, and a gzipped body
+ * is the same person, or the same list, as the plain one. Each names its media subtype too: the
+ * JSON and the CBOR of one version are different bodies, and a 304 must not mix them up.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Object version, MediaType mediaType) {
+        return "W/\"" + version + "-" + mediaType.getSubtype() + "\"";
+    }
+
+    /**
+     * The version an If-Match header asks PUT to update, or null when there is no precondition.
+     * Only a single tag is understood; anything else can never match. It is compared by the version
+     * it carries, weak or not and whatever its media type: every tag handed out is weak, so a strong
+     * comparison would never match, and a client may update in JSON a person it read as CBOR.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single ETag: " + ifMatch);
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int subtype = value.indexOf('-');
+        try {
+            return Long.valueOf(subtype < 0 ? value : value.substring(0, subtype));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version of this person: " + ifMatch);
+        }
+    }
+}
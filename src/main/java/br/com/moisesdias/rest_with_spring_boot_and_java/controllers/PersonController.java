@@ -1,51 +1,283 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.controllers;
 
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangesPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchCriteriaVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSuggestionVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonWriteStatusVO;
 import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.CompressedPersonListCache;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonChangeStream;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonExportFormat;
 import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonSuggestServices;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonWriteBehindQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/person")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonController {
 
     @Autowired
     private PersonServices services;
 
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<Person> findAll() {
-        return services.findAll();
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private CompressedPersonListCache listCache;
+
+    @Autowired
+    private PersonSuggestServices suggestServices;
+
+    @Autowired
+    private PersonChangeStream changeStream;
+
+    //Only present when person.write-behind.enabled is set
+    @Autowired(required = false)
+    private PersonWriteBehindQueue writeBehind;
+
+    //Carries the changedSince token to sync from after a full read
+    public static final String SYNC_TOKEN_HEADER = "X-Sync-Token";
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> findAll(WebRequest request) {
+        // Read before the rows, so a concurrent write can only make the tag older than the body, never newer
+        String syncToken = services.findSyncToken();
+        String version = services.findTableVersion();
+        MediaType representation = representation(request);
+        String etag = ETags.of(version, representation);
+        // Every variant says what it varies on, so a cache never hands one to a client that asked for another
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).header(SYNC_TOKEN_HEADER, syncToken).build();
+        }
+        if (listCache.isEnabled() && acceptsGzip(request) && representation.equals(MediaType.APPLICATION_JSON)) {
+            // Already compressed, the server compression leaves responses with a Content-Encoding alone
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .header(SYNC_TOKEN_HEADER, syncToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .body(listCache.gzippedJson(version, services::findAll));
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .header(SYNC_TOKEN_HEADER, syncToken).contentType(representation).body(services.findAll());
     }
 
-    @GetMapping(value = "/{id}",
+    //What a person or the list is written as for this request, set on the response so that it matches the ETag
+    private static MediaType representation(WebRequest request) {
+        return prefersCbor(request) ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static boolean prefersCbor(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) return false;
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) return false;
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) return true;
+        }
+        return false;
+    }
+
+    @GetMapping(params = {"limit", "!changedSince"},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public PersonPageVO findPage(@RequestParam(value = "after", required = false) Long after,
+                                 @RequestParam(value = "limit") int limit) {
+        return services.findPage(after, limit);
+    }
+
+    //Only what changed after the token of findAll or of the previous page, deletes as tombstones; 410 Gone once
+    //the token is older than the retained changes, and the client reads everything again
+    @GetMapping(params = "changedSince",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public PersonChangesPageVO findChangesSince(@RequestParam(value = "changedSince") String changedSince,
+                                                @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        return services.findChangesSince(changedSince, limit);
+    }
+
+    @GetMapping(value = "/search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public PersonSearchPageVO search(PersonSearchCriteriaVO criteria) {
+        return services.search(criteria);
+    }
+
+    @GetMapping(value = "/suggest",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public List<PersonSuggestionVO> suggest(@RequestParam(value = "q") String query,
+                                            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return suggestServices.suggest(query, limit);
+    }
+
+    @GetMapping(value = "/stream",
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity <Person> findById(@PathVariable(value = "id") Long id) {
-        try {
-            return ResponseEntity.ok(services.findById(id));
-        } catch (Exception e) {
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = mapper.createGenerator(outputStream);
+            generator.writeStartArray();
+            services.forEach(person -> {
+                try {
+                    generator.writeObject(person);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    //The whole table for offline processing, written row by row as it is read
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        PersonExportFormat exportFormat = PersonExportFormat.of(format);
+        StreamingResponseBody body = outputStream -> services.export(exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("person." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    //Every committed create, update and delete as Server-Sent Events, instead of polling the list; a consumer
+    //resumes after the last event it saw with Last-Event-ID, which EventSource sends by itself on reconnect
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeStream.subscribe(lastEventId);
+    }
+
+    @GetMapping(value = "/{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<PersonVO> findById(@PathVariable(value = "id") Long id, WebRequest request) {
+        Optional<PersonVO> person = services.findById(id);
+        if (person.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        MediaType representation = representation(request);
+        String etag = ETags.of(person.get().getVersion(), representation);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(representation).body(person.get());
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> create(@RequestBody Person person){
+        if (writeBehind != null) {
+            PersonWriteStatusVO status = writeBehind.accept(person);
+            URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/writes/{trackingId}")
+                    .buildAndExpand(status.getTrackingId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(status);
+        }
+        return ResponseEntity.ok(services.create(person));
+    }
 
+    @GetMapping(value = "/writes/{trackingId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<PersonWriteStatusVO> findWriteStatus(@PathVariable(value = "trackingId") String trackingId) {
+        Optional<PersonWriteStatusVO> status = writeBehind == null ? Optional.empty() : writeBehind.findStatus(trackingId);
+        return status.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
-            produces = MediaType.APPLICATION_JSON_VALUE)
-    public Person create(@RequestBody Person person){
-        return services.create(person);
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public List<BatchItemResultVO> createAll(@RequestBody List<Person> people) {
+        return services.createAll(people);
     }
 
-    @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
-            produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Person> update(@RequestBody Person person){
-        try {
-            return ResponseEntity.ok(services.update(person));
-        } catch (Exception e) {
+    //Read and create BATCH_CHUNK_SIZE people at a time, so the body is never held whole. Each chunk commits
+    //on its own, and a malformed line fails the request with the chunks before it already created
+    @PostMapping(value = "/batch",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public List<BatchItemResultVO> createAllFromNdjson(InputStream body) throws IOException {
+        List<BatchItemResultVO> results = new ArrayList<>();
+        try (MappingIterator<Person> people = mapper.readerFor(Person.class).readValues(body)) {
+            List<Person> chunk = new ArrayList<>(PersonServices.BATCH_CHUNK_SIZE);
+            while (people.hasNextValue()) {
+                chunk.add(people.nextValue());
+                if (chunk.size() == PersonServices.BATCH_CHUNK_SIZE) {
+                    createChunk(chunk, results);
+                    chunk = new ArrayList<>(PersonServices.BATCH_CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                createChunk(chunk, results);
+            }
+        }
+        return results;
+    }
+
+    //Results are numbered from the start of the body, not of the chunk
+    private void createChunk(List<Person> chunk, List<BatchItemResultVO> results) {
+        int offset = results.size();
+        for (BatchItemResultVO result : services.createAll(chunk)) {
+            result.setIndex(offset + result.getIndex());
+            results.add(result);
+        }
+    }
+
+    @PutMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Person> update(@RequestBody Person person,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         WebRequest request) {
+        Optional<Person> updated = services.update(person, ETags.expectedVersion(ifMatch));
+        if (updated.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        MediaType representation = representation(request);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(representation);
+        if (updated.get().getVersion() != null) {
+            response.eTag(ETags.of(updated.get().getVersion(), representation));
+        }
+        return response.body(updated.get());
     }
 
     @DeleteMapping(value = "/{id}")
@@ -0,0 +1,119 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.controllers;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonReactiveServices;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WebFlux counterpart of {@link PersonController}, active with the reactive profile.
+ */
+@RestController
+@RequestMapping("/person")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PersonReactiveController {
+
+    @Autowired
+    private PersonReactiveServices services;
+
+    //As application/x-ndjson each person is written as soon as the database emits it
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<Person>>> findAll(ServerWebExchange exchange) {
+        // Read before the rows, so a concurrent write can only make the tag older than the body, never newer
+        return services.findTableVersion()
+                .map(version -> {
+                    MediaType representation = prefersNdjson(exchange) ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+                    String etag = ETags.of(version, representation);
+                    if (exchange.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).contentType(representation)
+                            .body(services.findAll());
+                });
+    }
+
+    private static boolean prefersNdjson(ServerWebExchange exchange) {
+        List<MediaType> mediaTypes = new ArrayList<>(exchange.getRequest().getHeaders().getAccept());
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) return false;
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) return true;
+        }
+        return false;
+    }
+
+    @GetMapping(params = "limit",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<PersonPageVO> findPage(@RequestParam(value = "after", required = false) Long after,
+                                       @RequestParam(value = "limit") int limit) {
+        return services.findPage(after, limit);
+    }
+
+    @GetMapping(value = "/stream",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Person> streamAll() {
+        return services.findAll();
+    }
+
+    @GetMapping(value = "/{id}",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Person>> findById(@PathVariable(value = "id") Long id, ServerWebExchange exchange) {
+        return services.findById(id)
+                .map(person -> {
+                    String etag = ETags.of(person.getVersion(), MediaType.APPLICATION_JSON);
+                    if (exchange.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Person>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(person);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Person> create(@RequestBody Person person) {
+        return services.create(person);
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<BatchItemResultVO> createAll(@RequestBody Flux<Person> people) {
+        return services.createAll(people);
+    }
+
+    @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Person>> update(@RequestBody Person person,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return services.update(person, ETags.expectedVersion(ifMatch))
+                .map(updated -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (updated.getVersion() != null) {
+                        response.eTag(ETags.of(updated.getVersion(), MediaType.APPLICATION_JSON));
+                    }
+                    return response.body(updated);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping(value = "/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable(value = "id") Long id) {
+        return services.delete(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
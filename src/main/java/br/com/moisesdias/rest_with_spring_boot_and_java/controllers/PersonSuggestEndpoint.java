@@ -0,0 +1,33 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.controllers;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonSuggestServices;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/personsuggest: GET compares the suggest index with the table, POST rebuilds it.
+ */
+@Component
+@Profile("!reactive")
+@Endpoint(id = "personsuggest")
+public class PersonSuggestEndpoint {
+
+    @Autowired
+    private PersonSuggestServices suggestServices;
+
+    @ReadOperation
+    public Map<String, Object> check() {
+        return suggestServices.check();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("indexed", suggestServices.rebuild());
+    }
+}
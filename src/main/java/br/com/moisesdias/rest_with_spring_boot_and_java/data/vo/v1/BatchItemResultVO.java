@@ -0,0 +1,36 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BatchItemResultVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public enum Status { CREATED, FAILED }
+
+    //Position of the item in the submitted batch
+    private int index;
+    private Status status;
+    private Long id;
+    private String email;
+    private String message;
+
+    public static BatchItemResultVO created(int index, Long id, String email) {
+        return new BatchItemResultVO(index, Status.CREATED, id, email, null);
+    }
+
+    public static BatchItemResultVO failed(int index, String email, String message) {
+        return new BatchItemResultVO(index, Status.FAILED, null, email, message);
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+//One row of the person_change log, the data of an event of GET /person/changes
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PersonChangeVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public enum Type { SAVED, DELETED }
+
+    //Position in the log, also the SSE event id a consumer resumes after
+    private long seq;
+    private Type type;
+    private Long id;
+    //The person as written, null when deleted
+    private PersonVO person;
+    private Instant changedAt;
+}
@@ -0,0 +1,27 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+//A page of GET /person?changedSince=: the latest change of each person changed, deletes included
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PersonChangesPageVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private List<PersonChangeVO> changes;
+    //To pass as changedSince next time; always set, so a client can keep it even when nothing changed
+    private String nextToken;
+    //Whether more changes are ready right now, to fetch at once with nextToken
+    private boolean hasMore;
+}
@@ -0,0 +1,35 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+//Totals of an import, resumed runs included; also the content of its checkpoint file
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PersonImportResultVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    //Identifies the source file, a checkpoint is only resumed against the same one
+    private String source;
+    private long sourceSize;
+    private long sourceModified;
+
+    //Records read and committed so far, in file order; a resumed run skips this many
+    private long records;
+    private long upserted;
+    //Earlier rows of a chunk with the same e-mail as a later one, which wins
+    private long duplicates;
+    private long failed;
+    //Length of the errors file at this checkpoint; a resumed run cuts it back to this
+    private long errorsBytes;
+    private boolean complete;
+}
@@ -1,4 +1,4 @@
-package br.com.moisesdias.rest_with_spring_boot_and_java.exceptions;
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -7,20 +7,20 @@ import lombok.Setter;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.Date;
+import java.util.List;
 
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
-public class ExceptionResponse implements Serializable {
+public class PersonPageVO implements Serializable {
 
     @Serial
     private static final long serialVersionUID = 1L;
 
-    private Date timestamp;
-    private String message;
-    private String details;
+    private List<PersonVO> content;
+    //Id to pass as "after" to fetch the next page; null on the last page
+    private Long nextCursor;
 
 
 }
@@ -0,0 +1,32 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class PersonSearchCriteriaVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    //Exact match, or prefix match when the value ends with '*'
+    private String firstName;
+    private String lastName;
+    private String email;
+    //Exact match only
+    private String gender;
+
+    //One of id, firstName, lastName or email; ties are broken by id
+    private String sort = "id";
+    //asc or desc
+    private String direction = "asc";
+    private int limit = 20;
+    //nextCursor of the previous page, only valid with the same sort and direction
+    private String cursor;
+}
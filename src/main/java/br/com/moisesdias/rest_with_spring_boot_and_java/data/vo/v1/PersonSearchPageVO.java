@@ -0,0 +1,26 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PersonSearchPageVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private List<PersonVO> content;
+    //Opaque token to pass as "cursor" to fetch the next page; null on the last page
+    private String nextCursor;
+
+
+}
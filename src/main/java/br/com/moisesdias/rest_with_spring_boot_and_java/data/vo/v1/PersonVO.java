@@ -0,0 +1,39 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Wire model of the read endpoints, filled straight from JPQL constructor expressions so
+ * reads never create managed entities. Same JSON fields as {@link Person}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class PersonVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String address;
+    private String gender;
+    private String email;
+    private Long version;
+
+    public static PersonVO of(Person person) {
+        return new PersonVO(person.getId(), person.getFirstName(), person.getLastName(), person.getAddress(),
+                person.getGender(), person.getEmail(), person.getVersion());
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PersonWriteStatusVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public enum Status { QUEUED, CREATED, FAILED }
+
+    //Handed out by the 202 of an asynchronous create, see GET /person/writes/{trackingId}
+    private String trackingId;
+    private Status status;
+    private Long id;
+    private String email;
+    private String message;
+
+    public static PersonWriteStatusVO queued(String trackingId, String email) {
+        return new PersonWriteStatusVO(trackingId, Status.QUEUED, null, email, null);
+    }
+
+    public static PersonWriteStatusVO of(String trackingId, BatchItemResultVO result) {
+        Status status = result.getStatus() == BatchItemResultVO.Status.CREATED ? Status.CREATED : Status.FAILED;
+        return new PersonWriteStatusVO(trackingId, status, result.getId(), result.getEmail(), result.getMessage());
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+// Rejected client input: no stack trace or suppressed exceptions are recorded
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public BadRequestException(String msg) {
+        super(msg, null, false, false);
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+// A position older than the retained history: the client has to start over from a full read
+@ResponseStatus(HttpStatus.GONE)
+public class ResourceGoneException extends RuntimeException implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ResourceGoneException(String msg) {
+        super(msg, null, false, false);
+    }
+}
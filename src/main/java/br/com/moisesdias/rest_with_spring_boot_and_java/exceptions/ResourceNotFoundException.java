@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import java.io.Serial;
 import java.io.Serializable;
 
+// Not found is an expected outcome: no stack trace or suppressed exceptions are recorded
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException implements Serializable {
 
@@ -13,6 +14,6 @@ public class ResourceNotFoundException extends RuntimeException implements Seria
     private static final long serialVersionUID = 1L;
 
     public ResourceNotFoundException(String msg) {
-        super(msg);
+        super(msg, null, false, false);
     }
 }
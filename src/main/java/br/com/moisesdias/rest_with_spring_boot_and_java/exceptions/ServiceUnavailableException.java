@@ -0,0 +1,27 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Duration;
+
+// Load shedding is an expected outcome: no stack trace or suppressed exceptions are recorded
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String msg, Duration retryAfter) {
+        super(msg, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,38 +1,71 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.handler;
 
-import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ExceptionResponse;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceGoneException;
 import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ServiceUnavailableException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.util.Date;
+import java.time.Instant;
 
+/**
+ * Errors as RFC 7807 application/problem+json; Spring fills in "instance" with the request path.
+ */
 @ControllerAdvice
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomizeResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(Exception.class)
-    public final ResponseEntity<ExceptionResponse> handleAllExceptions(Exception ex, WebRequest request) {
-        ExceptionResponse exceptionResponse = new ExceptionResponse(
-                new Date(),
-                ex.getMessage(),
-                request.getDescription(false));
-
-        return new ResponseEntity<>(exceptionResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    public final ProblemDetail handleAllExceptions(Exception ex) {
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, ex);
     }
 
     @ExceptionHandler(ResourceNotFoundException.class)
-    public final ResponseEntity<ExceptionResponse> handleNotFoundExceptions(Exception ex, WebRequest request) {
-        ExceptionResponse exceptionResponse = new ExceptionResponse(
-                new Date(),
-                ex.getMessage(),
-                request.getDescription(false));
+    public final ProblemDetail handleNotFoundExceptions(Exception ex) {
+        return problem(HttpStatus.NOT_FOUND, ex);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public final ProblemDetail handleBadRequestExceptions(Exception ex) {
+        return problem(HttpStatus.BAD_REQUEST, ex);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public final ProblemDetail handlePreconditionFailedExceptions(Exception ex) {
+        return problem(HttpStatus.PRECONDITION_FAILED, ex);
+    }
+
+    @ExceptionHandler(ResourceGoneException.class)
+    public final ProblemDetail handleGoneExceptions(Exception ex) {
+        return problem(HttpStatus.GONE, ex);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public final ResponseEntity<ProblemDetail> handleServiceUnavailableExceptions(ServiceUnavailableException ex) {
+        return serviceUnavailable(ex);
+    }
+
+    static ProblemDetail problem(HttpStatus status, Exception ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, ex.getMessage());
+        problem.setProperty("timestamp", Instant.now());
+        return problem;
+    }
 
-        return new ResponseEntity<>(exceptionResponse, HttpStatus.NOT_FOUND);
+    //Retry-After in whole seconds, at least one
+    static ResponseEntity<ProblemDetail> serviceUnavailable(ServiceUnavailableException ex) {
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(problem(HttpStatus.SERVICE_UNAVAILABLE, ex));
     }
 }
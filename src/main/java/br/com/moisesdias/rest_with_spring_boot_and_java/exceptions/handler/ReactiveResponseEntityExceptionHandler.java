@@ -0,0 +1,54 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.handler;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceGoneException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ServiceUnavailableException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+
+/**
+ * Same error bodies as {@link CustomizeResponseEntityExceptionHandler}, for the reactive stack.
+ */
+@ControllerAdvice
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler(Exception.class)
+    public final ProblemDetail handleAllExceptions(Exception ex) {
+        return CustomizeResponseEntityExceptionHandler.problem(HttpStatus.INTERNAL_SERVER_ERROR, ex);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public final ProblemDetail handleNotFoundExceptions(Exception ex) {
+        return CustomizeResponseEntityExceptionHandler.problem(HttpStatus.NOT_FOUND, ex);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public final ProblemDetail handleBadRequestExceptions(Exception ex) {
+        return CustomizeResponseEntityExceptionHandler.problem(HttpStatus.BAD_REQUEST, ex);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public final ProblemDetail handlePreconditionFailedExceptions(Exception ex) {
+        return CustomizeResponseEntityExceptionHandler.problem(HttpStatus.PRECONDITION_FAILED, ex);
+    }
+
+    @ExceptionHandler(ResourceGoneException.class)
+    public final ProblemDetail handleGoneExceptions(Exception ex) {
+        return CustomizeResponseEntityExceptionHandler.problem(HttpStatus.GONE, ex);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public final ResponseEntity<ProblemDetail> handleServiceUnavailableExceptions(ServiceUnavailableException ex) {
+        return CustomizeResponseEntityExceptionHandler.serviceUnavailable(ex);
+    }
+}
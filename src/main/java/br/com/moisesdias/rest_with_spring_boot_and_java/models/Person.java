@@ -1,6 +1,8 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.models;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.io.Serial;
@@ -17,21 +19,39 @@ public class Person implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
+    // Ids are handed out in blocks of 50 from the id_generator table so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "person_id")
+    @TableGenerator(name = "person_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "person", allocationSize = 50)
     private Long id;
 
+    @NotBlank
+    @Size(max = 80)
     @Column(name = "first_name", nullable = false, length = 80)
     private String firstName;
+    @NotBlank
+    @Size(max = 80)
     @Column(name = "last_name", nullable = false, length = 80)
     private String lastName;
+    @NotBlank
+    @Size(max = 100)
     @Column(nullable = false, length = 100)
     private String address;
+    @NotBlank
+    @Size(max = 9)
     @Column(nullable = false, length = 9)
     private String gender;
+    @NotBlank
+    @Size(max = 100)
     @Column(nullable = false, length = 100)
     private String email;
 
+    // Incremented by every update; the ETag of the person
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 
     public Person(String firstName, String lastName, String address, String gender, String email) {
         this.firstName = firstName;
@@ -0,0 +1,199 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.repositories;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangeVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking access to the person table through R2DBC, same schema as {@link PersonRepository}.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PersonReactiveRepository {
+
+    private static final String COLUMNS = "id, first_name, last_name, address, gender, email";
+    private static final String SELECT_COLUMNS = COLUMNS + ", version";
+    private static final String ID_GENERATOR = "person";
+
+    @Autowired
+    DatabaseClient client;
+
+    public Flux<Person> findAll() {
+        return client.sql("select " + SELECT_COLUMNS + " from person order by id")
+                .map(PersonReactiveRepository::toPerson)
+                .all();
+    }
+
+    public Mono<Person> findById(Long id) {
+        return client.sql("select " + SELECT_COLUMNS + " from person where id = :id")
+                .bind("id", id)
+                .map(PersonReactiveRepository::toPerson)
+                .one();
+    }
+
+    //Keyset pagination: the next people after the given id, ordered by id
+    public Flux<Person> findByIdGreaterThan(long id, int limit) {
+        return client.sql("select " + SELECT_COLUMNS + " from person where id > :id order by id limit :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(PersonReactiveRepository::toPerson)
+                .all();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return client.sql("select 1 from person where id = :id")
+                .bind("id", id)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    //Read right after update in its transaction, which still holds the row lock, so it is the version it wrote
+    public Mono<Long> findVersionById(Long id) {
+        return client.sql("select version from person where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    //Same value as PersonRepository.findTableVersion
+    public Mono<Long> findTableVersion() {
+        return client.sql("select version from person_table_version where id = 1")
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    //Last statement of the writing transaction, like PersonChangeLog: the row stays locked only until the commit
+    public Mono<Void> bumpTableVersion() {
+        return client.sql("update person_table_version set version = version + 1 where id = 1")
+                .then();
+    }
+
+    //Which of the given e-mails are already taken, checked with a single IN (...) query
+    public Flux<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) return Flux.empty();
+        return client.sql("select email from person where email in (:emails)")
+                .bind("emails", emails)
+                .map(row -> row.get("email", String.class))
+                .all();
+    }
+
+    //One multi-row INSERT for the given people, whose ids must already be allocated
+    public Mono<Void> insertAll(List<Person> people) {
+        if (people.isEmpty()) return Mono.empty();
+
+        StringBuilder sql = new StringBuilder("insert into person (" + COLUMNS + ") values ");
+        for (int i = 0; i < people.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:id").append(i)
+                    .append(", :firstName").append(i)
+                    .append(", :lastName").append(i)
+                    .append(", :address").append(i)
+                    .append(", :gender").append(i)
+                    .append(", :email").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+        for (int i = 0; i < people.size(); i++) {
+            Person person = people.get(i);
+            spec = spec.bind("id" + i, person.getId())
+                    .bind("firstName" + i, person.getFirstName())
+                    .bind("lastName" + i, person.getLastName())
+                    .bind("address" + i, person.getAddress())
+                    .bind("gender" + i, person.getGender())
+                    .bind("email" + i, person.getEmail());
+        }
+        return spec.then();
+    }
+
+    /**
+     * One multi-row INSERT into the person_change outbox, the rows PersonChangeLog writes on the servlet
+     * stack, keyed by person id in write order; a null payload (otherwise the PersonVO as JSON) is a delete.
+     */
+    public Mono<Void> insertChanges(Map<Long, String> payloads) {
+        if (payloads.isEmpty()) return Mono.empty();
+
+        StringBuilder sql = new StringBuilder("insert into person_change (person_id, type, payload) values ");
+        for (int i = 0; i < payloads.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                    .append("(:personId").append(i)
+                    .append(", :type").append(i)
+                    .append(", :payload").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+        int i = 0;
+        for (Map.Entry<Long, String> change : payloads.entrySet()) {
+            PersonChangeVO.Type type = change.getValue() == null ? PersonChangeVO.Type.DELETED : PersonChangeVO.Type.SAVED;
+            spec = spec.bind("personId" + i, change.getKey())
+                    .bind("type" + i, type.name());
+            spec = change.getValue() == null
+                    ? spec.bindNull("payload" + i, String.class)
+                    : spec.bind("payload" + i, change.getValue());
+            i++;
+        }
+        return spec.then();
+    }
+
+    //Single UPDATE ... WHERE id = ? bumping the version, optionally only at expectedVersion; emits the affected row count
+    public Mono<Long> update(Person person, Long expectedVersion) {
+        String sql = "update person set first_name = :firstName, last_name = :lastName, address = :address, " +
+                "gender = :gender, email = :email, version = version + 1 where id = :id";
+        DatabaseClient.GenericExecuteSpec spec = expectedVersion == null
+                ? client.sql(sql)
+                : client.sql(sql + " and version = :expectedVersion").bind("expectedVersion", expectedVersion);
+        return spec.bind("firstName", person.getFirstName())
+                .bind("lastName", person.getLastName())
+                .bind("address", person.getAddress())
+                .bind("gender", person.getGender())
+                .bind("email", person.getEmail())
+                .bind("id", person.getId())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    //Single DELETE ... WHERE id = ?; emits the affected row count
+    public Mono<Long> deleteById(Long id) {
+        return client.sql("delete from person where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids from the same id_generator row Hibernate uses, so
+     * both stacks can write to one table. gen_value holds the last id handed out; emits the first
+     * reserved id. Runs in the transaction of the insert, which holds the row until it commits.
+     */
+    public Mono<Long> allocateIds(int count) {
+        return client.sql("select gen_value from id_generator where gen_name = :name for update")
+                .bind("name", ID_GENERATOR)
+                .map(row -> row.get("gen_value", Long.class))
+                .one()
+                .flatMap(last -> client.sql("update id_generator set gen_value = :value where gen_name = :name")
+                        .bind("value", last + count)
+                        .bind("name", ID_GENERATOR)
+                        .then()
+                        .thenReturn(last + 1));
+    }
+
+    private static Person toPerson(Readable row) {
+        Person person = new Person(
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("address", String.class),
+                row.get("gender", String.class),
+                row.get("email", String.class));
+        person.setId(row.get("id", Long.class));
+        person.setVersion(row.get("version", Long.class));
+        return person;
+    }
+}
@@ -1,17 +1,74 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.repositories;
 
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
 import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person> {
     Optional<Person> findByEmail(String email);
 
+    //Which of the given e-mails are already taken, checked with a single IN (...) query
+    @Query("select p.email from Person p where p.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    //Single UPDATE ... WHERE id = ? without loading the entity, bumping the version; when expectedVersion
+    //is given the row only matches at that version. Returns the affected row count
+    @Modifying
+    @Query("update Person p set p.firstName = :#{#person.firstName}, p.lastName = :#{#person.lastName}, " +
+            "p.address = :#{#person.address}, p.gender = :#{#person.gender}, p.email = :#{#person.email}, " +
+            "p.version = p.version + 1 " +
+            "where p.id = :#{#person.id} and (:expectedVersion is null or p.version = :expectedVersion)")
+    int updatePerson(@Param("person") Person person, @Param("expectedVersion") Long expectedVersion);
+
+    //Read right after updatePerson in its transaction, which still holds the row lock, so it is the version it wrote
+    @Query("select p.version from Person p where p.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    //Single DELETE ... WHERE id = ? without loading the entity; returns the affected row count
+    @Modifying
+    @Query("delete from Person p where p.id = :id")
+    int deletePersonById(@Param("id") Long id);
+
+    //Goes up with every transaction that writes to person, see PersonChangeLog; a primary key lookup
+    @Query(value = "select version from person_table_version where id = 1", nativeQuery = true)
+    long findTableVersion();
+
+    //Read projections: rows go straight into PersonVO, with no entity, snapshot or persistence context entry
+    String PERSON_VO = "select new br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO(" +
+            "p.id, p.firstName, p.lastName, p.address, p.gender, p.email, p.version) from Person p";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PERSON_VO + " order by p.id")
+    List<PersonVO> findAllPersonVO();
+
+    @Query(PERSON_VO + " where p.id = :id")
+    Optional<PersonVO> findPersonVOById(@Param("id") Long id);
+
+    //Keyset pagination: the next page of people after the given id, ordered by id
+    @Query(PERSON_VO + " where p.id > :id order by p.id")
+    List<PersonVO> findPersonVOByIdGreaterThan(@Param("id") Long id, Limit limit);
+
+    //Forward-only stream over the whole table; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PERSON_VO + " order by p.id")
+    Stream<PersonVO> streamAll();
+
     //Define custom query using JPQL with index parameters
     @Query("select p from Person p where p.firstName = ?1 and p.lastName = ?2")
     Person findByJPQL(String firstName, String lastName);
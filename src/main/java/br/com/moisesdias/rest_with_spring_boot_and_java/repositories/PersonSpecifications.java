@@ -0,0 +1,58 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.repositories;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Building blocks of /person/search. Every predicate is index friendly: equality, a LIKE with a
+ * constant prefix, or a keyset range on the sort column and id.
+ */
+public final class PersonSpecifications {
+
+    public static final char LIKE_ESCAPE = '!';
+
+    private PersonSpecifications() {
+    }
+
+    //Exact match, or prefix match when the value ends with '*'; null or blank matches everything
+    public static Specification<Person> matches(String attribute, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        if (!value.endsWith("*")) {
+            return (root, query, cb) -> cb.equal(root.get(attribute), value);
+        }
+        String pattern = escapeLike(value.substring(0, value.length() - 1)) + "%";
+        return (root, query, cb) -> cb.like(root.get(attribute), pattern, LIKE_ESCAPE);
+    }
+
+    //Rows strictly after (value, id) in the (attribute, id) order
+    public static Specification<Person> after(String attribute, boolean ascending, String value, long id) {
+        if (attribute.equals("id")) {
+            return (root, query, cb) -> {
+                Path<Long> idPath = root.get("id");
+                return ascending ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            };
+        }
+        return (root, query, cb) -> {
+            Path<String> key = root.get(attribute);
+            Path<Long> idPath = root.get("id");
+            return cb.or(
+                    ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value),
+                    cb.and(cb.equal(key, value), ascending ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id)));
+        };
+    }
+
+    //'!' rather than '\' as escape: MySQL reads a backslash inside a string literal as an escape itself
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (char c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Position in the person_change log, handed to clients as the changedSince token and as the SSE event id:
+ * the seq read up to, and the holes below it that were skipped while their transaction could still commit,
+ * so a change that commits late is delivered all the same. {@code 42} without holes, {@code 42~37.39} with.
+ */
+record ChangeToken(long seq, SortedSet<Long> holes) {
+
+    //Keeps tokens short enough for a query string; the newest holes are the ones most likely to still commit
+    static final int MAX_HOLES = 100;
+
+    private static final char HOLES = '~';
+    private static final String HOLE_SEPARATOR = ".";
+
+    ChangeToken {
+        holes = newest(holes);
+    }
+
+    static ChangeToken of(long seq) {
+        return new ChangeToken(seq, Collections.emptySortedSet());
+    }
+
+    private static SortedSet<Long> newest(SortedSet<Long> holes) {
+        TreeSet<Long> newest = new TreeSet<>(holes);
+        while (newest.size() > MAX_HOLES) {
+            newest.pollFirst();
+        }
+        return Collections.unmodifiableSortedSet(newest);
+    }
+
+    String encode() {
+        if (holes.isEmpty()) {
+            return Long.toString(seq);
+        }
+        StringBuilder token = new StringBuilder().append(seq).append(HOLES);
+        for (Long hole : holes) {
+            token.append(hole).append(HOLE_SEPARATOR);
+        }
+        return token.substring(0, token.length() - 1);
+    }
+
+    static ChangeToken decode(String token) {
+        try {
+            int holesAt = token.indexOf(HOLES);
+            long seq = Long.parseLong(holesAt < 0 ? token : token.substring(0, holesAt));
+            TreeSet<Long> holes = new TreeSet<>();
+            if (holesAt >= 0) {
+                for (String hole : token.substring(holesAt + 1).split("\\" + HOLE_SEPARATOR)) {
+                    holes.add(Long.parseLong(hole));
+                }
+            }
+            if (seq < 0 || (!holes.isEmpty() && (holes.first() < 0 || holes.last() >= seq))) {
+                throw new BadRequestException("Invalid change token: " + token);
+            }
+            return new ChangeToken(seq, holes);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid change token: " + token);
+        }
+    }
+}
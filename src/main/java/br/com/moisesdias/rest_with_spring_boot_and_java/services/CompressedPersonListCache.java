@@ -0,0 +1,87 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The gzipped JSON of the whole person list, kept for as long as the table version does not change,
+ * so repeated full exports skip the query, the serialization and the compression.
+ * Only the latest version is held.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CompressedPersonListCache {
+
+    private Logger logger = Logger.getLogger(CompressedPersonListCache.class.getName());
+
+    private record Entry(String version, byte[] gzip) {
+    }
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Value("${person.list-cache.enabled:true}")
+    boolean enabled;
+
+    @Value("${person.list-cache.gzip-level:6}")
+    int gzipLevel;
+
+    // Not synchronized: a virtual thread would stay pinned to its carrier while the list loads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Entry entry;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public byte[] gzippedJson(String version, Supplier<List<PersonVO>> people) {
+        Entry current = entry;
+        if (current != null && current.version().equals(version)) {
+            return current.gzip();
+        }
+        lock.lock();
+        try {
+            // Concurrent misses wait for the first one instead of all building the same bytes
+            current = entry;
+            if (current == null || !current.version().equals(version)) {
+                logger.fine("Compressing the person list for version " + version);
+                current = new Entry(version, gzip(mapper.writeValueAsBytes(people.get()), gzipLevel));
+                entry = current;
+            }
+            return current.gzip();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static byte[] gzip(byte[] data, int level) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
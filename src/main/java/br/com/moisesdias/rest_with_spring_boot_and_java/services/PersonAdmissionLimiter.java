@@ -0,0 +1,155 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Admits at most max-concurrent calls into {@link PersonServices}, about one per pooled connection,
+ * and lets at most max-queue more wait up to max-wait for a permit. Everything beyond that fails at
+ * once with a 503 and a Retry-After, instead of piling up on the pool until its connection timeout.
+ * Runs outside the transaction, so a rejected call never holds a connection; cache hits are
+ * answered before it, see {@link br.com.moisesdias.rest_with_spring_boot_and_java.config.CacheConfig},
+ * and so are the calls {@link PersonRequestCoalescer} shares.
+ * The calls that stream the whole table hold their connection for minutes, so they have a bulkhead of
+ * their own, max-streams, and never take the permits of the short calls; they do not queue either.
+ */
+@Aspect
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "person.admission", name = "enabled", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class PersonAdmissionLimiter {
+
+    private Logger logger = Logger.getLogger(PersonAdmissionLimiter.class.getName());
+
+    private final Semaphore permits;
+    private final Semaphore streams;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger streaming = new AtomicInteger();
+
+    public PersonAdmissionLimiter(@Value("${person.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+                                  @Value("${person.admission.max-streams:2}") int maxStreams,
+                                  @Value("${person.admission.max-queue:50}") int maxQueue,
+                                  @Value("${person.admission.max-wait:200ms}") Duration maxWait,
+                                  @Value("${person.admission.retry-after:1s}") Duration retryAfter,
+                                  MeterRegistry meterRegistry) {
+        // Fair, so waiting callers are admitted in arrival order and none starves behind newcomers
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.streams = new Semaphore(maxStreams, true);
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("person.admission.active", active);
+        meterRegistry.gauge("person.admission.waiting", waiting);
+        meterRegistry.gauge("person.admission.streaming", streaming);
+    }
+
+    @Pointcut("execution(* br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices.forEach*(..)) || " +
+            "execution(* br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices.export(..))")
+    public void stream() {
+    }
+
+    @Around("within(br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices) && !stream()")
+    public Object admit(ProceedingJoinPoint call) throws Throwable {
+        acquire(call.getSignature().getName());
+        active.incrementAndGet();
+        try {
+            return call.proceed();
+        } catch (RuntimeException e) {
+            // Something outside the limiter holds the connections: still a 503, not a 500
+            if (isPoolTimeout(e)) {
+                throw reject(call.getSignature().getName(), "pool-timeout");
+            }
+            throw e;
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    //Waits max-wait for a stream slot, with no queue of its own: a request thread waits for each
+    @Around("stream()")
+    public Object admitStream(ProceedingJoinPoint call) throws Throwable {
+        String method = call.getSignature().getName();
+        try {
+            if (!streams.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw reject(method, "streams-full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(method, "interrupted");
+        }
+        streaming.incrementAndGet();
+        try {
+            return call.proceed();
+        } catch (RuntimeException e) {
+            if (isPoolTimeout(e)) {
+                throw reject(method, "pool-timeout");
+            }
+            throw e;
+        } finally {
+            streaming.decrementAndGet();
+            streams.release();
+        }
+    }
+
+    private void acquire(String method) {
+        try {
+            // Not the untimed tryAcquire(), which takes a free permit ahead of the callers already waiting for one
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                throw reject(method, "queue-full");
+            }
+            try {
+                if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw reject(method, "timeout");
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(method, "interrupted");
+        }
+    }
+
+    private ServiceUnavailableException reject(String method, String reason) {
+        logger.fine("Rejected " + method + ": " + reason);
+        meterRegistry.counter("person.admission.rejected", "method", method, "reason", reason).increment();
+        return new ServiceUnavailableException("Too many concurrent requests, try again later", retryAfter);
+    }
+
+    private static boolean isPoolTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangeVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox of the writes to person: every {@link PersonChangedEvent} becomes a person_change row in
+ * the transaction that published it, so the log holds exactly the committed writes.
+ * The rows of a transaction are appended as one JDBC batch right before it commits, and the
+ * transaction bumps person_table_version, the ETag of the whole table.
+ */
+@Component
+@Profile("!reactive") // Joins the JPA transactions of PersonServices
+public class PersonChangeLog {
+
+    static final String INSERT_SQL = "insert into person_change (person_id, type, payload) values (?, ?, ?)";
+
+    // Locks the row until the commit right after, so the writers only queue on it for that long
+    static final String BUMP_TABLE_VERSION_SQL = "update person_table_version set version = version + 1 where id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper;
+
+    public PersonChangeLog(JdbcTemplate jdbcTemplate, ObjectMapper mapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mapper = mapper;
+    }
+
+    //Synchronous, so it runs inside the writing transaction, unlike the listeners that wait for the commit
+    @EventListener
+    public void onPersonChanged(PersonChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Person changes must be published inside the writing transaction");
+        }
+        @SuppressWarnings("unchecked")
+        List<PersonChangedEvent> pending = (List<PersonChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<PersonChangedEvent> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    append(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PersonChangeLog.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(event);
+    }
+
+    //Joins the current transaction; for writers that bypass PersonServices, such as the bulk import
+    public void append(List<PersonChangedEvent> changes) {
+        if (changes.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, changes.size(), (statement, change) -> {
+            statement.setLong(1, change.id());
+            statement.setString(2, (change.isDeleted() ? PersonChangeVO.Type.DELETED : PersonChangeVO.Type.SAVED).name());
+            statement.setString(3, change.isDeleted() ? null : payload(change));
+        });
+        jdbcTemplate.update(BUMP_TABLE_VERSION_SQL);
+    }
+
+    private String payload(PersonChangedEvent change) {
+        try {
+            return mapper.writeValueAsString(PersonVO.of(change.person()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize person " + change.id(), e);
+        }
+    }
+}
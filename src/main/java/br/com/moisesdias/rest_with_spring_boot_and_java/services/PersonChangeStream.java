@@ -0,0 +1,482 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangeVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangesPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceGoneException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the person_change log as Server-Sent Events. One poller per instance reads the log and
+ * fans every change out to the subscribers, so the database load does not grow with them; each
+ * subscriber has a bounded buffer and its own sender thread, so a slow consumer only holds up itself.
+ * A consumer that falls behind its buffer is served from the log instead until it has caught up.
+ * The same log is served page by page to clients that sync on demand, see {@link #changesSince}.
+ * A hole in seq that outlasts gap-timeout is skipped, but re-checked for late-window: if its transaction
+ * commits after all, the change is sent to the subscribers then, and the position handed to consumers
+ * (see {@link ChangeToken}) carries the holes still open, so a consumer reading later gets it as well.
+ */
+@Component
+@Profile("!reactive") // Reads the log written by PersonChangeLog
+public class PersonChangeStream implements SmartLifecycle {
+
+    private static final String SELECT_SQL = "select seq, person_id, type, payload, changed_at from person_change";
+
+    // A jump this big in seq is not transactions in flight (an auto-increment jump after a restart, say)
+    private static final int MAX_PENDING = 10_000;
+
+    private Logger logger = Logger.getLogger(PersonChangeStream.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration lateWindow;
+    private final int bufferSize;
+    private final Duration heartbeat;
+    private final Duration retention;
+    private final Duration pruneInterval;
+    private final Duration retryAfter;
+    private final Semaphore slots;
+    private final RowMapper<PersonChangeVO> rowMapper = this::change;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // The holes skipped over, each with the nanoTime until which its transaction may still commit
+    private final ConcurrentSkipListMap<Long, Long> pending = new ConcurrentSkipListMap<>();
+    // Guards the fan-out, so a subscriber joins either before or after a change, never during it
+    private final ReentrantLock fanOut = new ReentrantLock();
+    // Every change up to here has been fanned out; later ones are in the log but not yet safe to send
+    private volatile long published;
+    private long gapSince;
+    private long nextPrune;
+
+    private volatile boolean running;
+    private Thread poller;
+    private final SimpleAsyncTaskExecutorBuilder sendersBuilder;
+    private final int maxSubscribers;
+    private SimpleAsyncTaskExecutor senders;
+
+    public PersonChangeStream(JdbcTemplate jdbcTemplate, ObjectMapper mapper, MeterRegistry meterRegistry,
+                              SimpleAsyncTaskExecutorBuilder sendersBuilder,
+                              @Value("${person.changes.poll-interval:200ms}") Duration pollInterval,
+                              @Value("${person.changes.batch-size:500}") int batchSize,
+                              @Value("${person.changes.gap-timeout:2s}") Duration gapTimeout,
+                              @Value("${person.changes.late-window:5m}") Duration lateWindow,
+                              @Value("${person.changes.buffer-size:1000}") int bufferSize,
+                              @Value("${person.changes.max-subscribers:200}") int maxSubscribers,
+                              @Value("${person.changes.heartbeat:15s}") Duration heartbeat,
+                              @Value("${person.changes.retention:7d}") Duration retention,
+                              @Value("${person.changes.prune-interval:1h}") Duration pruneInterval,
+                              @Value("${person.changes.retry-after:5s}") Duration retryAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mapper = mapper;
+        this.meterRegistry = meterRegistry;
+        this.sendersBuilder = sendersBuilder;
+        this.maxSubscribers = maxSubscribers;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.lateWindow = lateWindow;
+        this.bufferSize = bufferSize;
+        this.heartbeat = heartbeat;
+        this.retention = retention;
+        this.pruneInterval = pruneInterval;
+        this.retryAfter = retryAfter;
+        this.slots = new Semaphore(maxSubscribers);
+        meterRegistry.gauge("person.changes.subscribers", subscribers, Set::size);
+        meterRegistry.gaugeMapSize("person.changes.pending", Tags.empty(), pending);
+    }
+
+    //A change for a subscriber; a late one fills a hole below what it has already been sent
+    private record Delivery(PersonChangeVO change, boolean late) {
+    }
+
+    private final class Subscriber {
+
+        final SseEmitter emitter;
+        final BlockingQueue<Delivery> buffer = new ArrayBlockingQueue<>(bufferSize);
+        volatile boolean overflowed;
+        volatile boolean closed;
+        long delivered;
+
+        Subscriber(SseEmitter emitter, long delivered) {
+            this.emitter = emitter;
+            this.delivered = delivered;
+        }
+
+        //Called by the poller: never blocks, a full buffer only flags the subscriber
+        void offer(PersonChangeVO change, boolean late) {
+            if (!overflowed && !buffer.offer(new Delivery(change, late))) {
+                overflowed = true;
+                meterRegistry.counter("person.changes.overflows").increment();
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            if (subscribers.remove(this)) {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Streams the changes after {@code lastEventId}, and those of the holes it carries that have been filled
+     * since, or from now on without one.
+     * Throws {@link ResourceGoneException} when changes after it were already pruned: the consumer
+     * has to reload everything, then subscribe without an id.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        ChangeToken from = lastEventId == null ? null : ChangeToken.decode(lastEventId);
+        if (!slots.tryAcquire()) {
+            meterRegistry.counter("person.changes.rejected").increment();
+            throw new ServiceUnavailableException("Too many subscribers to the change stream", retryAfter);
+        }
+        try {
+            if (from != null && isPruned(from.seq())) {
+                throw new ResourceGoneException("Changes after " + lastEventId + " are no longer retained, reload and subscribe without Last-Event-ID");
+            }
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+
+        // No timeout of its own: spring.mvc.async.request-timeout ends it, and EventSource reconnects
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber;
+        long upTo;
+        fanOut.lock();
+        try {
+            upTo = published;
+            // Changes up to lastEventId are skipped even if another instance got them out before this one
+            subscriber = new Subscriber(emitter, from == null ? upTo : from.seq());
+            subscribers.add(subscriber);
+        } finally {
+            fanOut.unlock();
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        senders.execute(() -> stream(subscriber, upTo, from == null ? Set.of() : from.holes()));
+        return emitter;
+    }
+
+    /**
+     * The changes after {@code token} that are already published, oldest first and at most {@code limit},
+     * keeping only the latest of each person; first the ones of its holes that have been filled since.
+     * Reads the same log as the stream, from the same position.
+     */
+    PersonChangesPageVO changesSince(ChangeToken token, int limit) {
+        if (isPruned(token.seq())) {
+            throw new ResourceGoneException("Changes after " + token.seq() + " are no longer retained, reload everything");
+        }
+        long upTo = published;
+        // Taken before reading: a hole filled from now on is either read below or kept open in the next token
+        Set<Long> open = new TreeSet<>(pending.headMap(upTo, true).keySet());
+        List<PersonChangeVO> changes = new ArrayList<>(readHoles(token.holes()));
+        int late = changes.size();
+        changes.addAll(jdbcTemplate.query(SELECT_SQL + " where seq > ? and seq <= ? order by seq limit ?",
+                rowMapper, token.seq(), upTo, limit + 1));
+        boolean hasMore = changes.size() - late > limit;
+        if (hasMore) {
+            changes = changes.subList(0, late + limit);
+        }
+        // Past the whole published log when it was all read, so the holes in it are only read again while open
+        long next = hasMore ? changes.get(changes.size() - 1).getSeq() : Math.max(token.seq(), upTo);
+
+        TreeSet<Long> holes = new TreeSet<>();
+        for (Long hole : open) {
+            if (hole <= next && (hole > token.seq() || token.holes().contains(hole))) holes.add(hole);
+        }
+        // Each person where its last change was, so applying the page in order ends in the same state
+        Map<Long, PersonChangeVO> latest = new LinkedHashMap<>();
+        for (PersonChangeVO change : changes) {
+            holes.remove(change.getSeq());
+            latest.remove(change.getId());
+            latest.put(change.getId(), change);
+        }
+        return new PersonChangesPageVO(new ArrayList<>(latest.values()), new ChangeToken(next, holes).encode(), hasMore);
+    }
+
+    //The token of a read that saw every change up to seq, and none of the holes still open below it
+    String tokenAt(long seq) {
+        return new ChangeToken(seq, new TreeSet<>(pending.headMap(seq, true).keySet())).encode();
+    }
+
+    private List<PersonChangeVO> readHoles(Collection<Long> holes) {
+        if (holes.isEmpty()) {
+            return List.of();
+        }
+        String in = String.join(", ", Collections.nCopies(holes.size(), "?"));
+        return jdbcTemplate.query(SELECT_SQL + " where seq in (" + in + ") order by seq", rowMapper, holes.toArray());
+    }
+
+    // A seq below the oldest row can also be a rolled back insert; that only costs the consumer a reload
+    private boolean isPruned(long lastEventId) {
+        Long oldest = jdbcTemplate.queryForObject("select min(seq) from person_change", Long.class);
+        return oldest != null && lastEventId < oldest - 1;
+    }
+
+    private void stream(Subscriber subscriber, long upTo, Set<Long> holes) {
+        try {
+            // Commits the response, so the consumer knows it is subscribed before the first change
+            subscriber.emitter.send(SseEmitter.event().comment("subscribed"));
+            for (PersonChangeVO change : readHoles(holes)) {
+                send(subscriber, change);
+            }
+            while (!subscriber.closed) {
+                catchUp(subscriber, upTo);
+                while (!subscriber.closed && !subscriber.overflowed) {
+                    Delivery delivery = subscriber.buffer.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (delivery == null) {
+                        // Keeps proxies from timing the stream out, and finds consumers that are gone
+                        subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (delivery.late() || delivery.change().getSeq() > subscriber.delivered) {
+                        send(subscriber, delivery.change());
+                    }
+                }
+                if (subscriber.overflowed) {
+                    // What the buffer dropped is in the log: read it from there up to what is published now
+                    fanOut.lock();
+                    try {
+                        subscriber.buffer.clear();
+                        subscriber.overflowed = false;
+                        upTo = published;
+                    } finally {
+                        fanOut.unlock();
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The consumer went away, or the emitter already completed
+            subscriber.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscriber.close();
+        } catch (DataAccessException e) {
+            logger.log(Level.WARNING, "Could not read the change log for a subscriber", e);
+            subscriber.close();
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private void catchUp(Subscriber subscriber, long upTo) throws IOException {
+        while (subscriber.delivered < upTo && !subscriber.closed) {
+            List<PersonChangeVO> changes = jdbcTemplate.query(SELECT_SQL + " where seq > ? and seq <= ? order by seq limit ?",
+                    rowMapper, subscriber.delivered, upTo, batchSize);
+            for (PersonChangeVO change : changes) {
+                send(subscriber, change);
+            }
+            if (changes.size() < batchSize) break;
+        }
+    }
+
+    //A late change leaves the position where it was, with its own hole no longer open
+    private void send(Subscriber subscriber, PersonChangeVO change) throws IOException {
+        long delivered = Math.max(subscriber.delivered, change.getSeq());
+        TreeSet<Long> holes = new TreeSet<>(pending.headMap(delivered).keySet());
+        holes.remove(change.getSeq());
+        subscriber.emitter.send(SseEmitter.event()
+                .id(new ChangeToken(delivered, holes).encode())
+                .data(change, MediaType.APPLICATION_JSON));
+        subscriber.delivered = delivered;
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                int read = fanOutNewChanges();
+                fanOutLateChanges();
+                pruneIfDue();
+                if (read < batchSize) {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DataAccessException e) {
+                logger.warning("Could not read the change log, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // seq is handed out on insert but becomes visible on commit, so a hole may be a transaction still in flight:
+    // nothing past it is published until it fills, or gap-timeout shows it is most likely rolled back; it is
+    // then skipped, but stays pending for late-window in case its transaction was only slow
+    int fanOutNewChanges() {
+        List<PersonChangeVO> changes = jdbcTemplate.query(SELECT_SQL + " where seq > ? order by seq limit ?",
+                rowMapper, published, batchSize);
+        long now = System.nanoTime();
+        fanOut.lock();
+        try {
+            for (PersonChangeVO change : changes) {
+                if (change.getSeq() != published + 1) {
+                    if (gapSince == 0) gapSince = now;
+                    if (now - gapSince < gapTimeout.toNanos()) break;
+                    skip(published + 1, change.getSeq(), now);
+                }
+                gapSince = 0;
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.offer(change, false);
+                }
+                published = change.getSeq();
+                meterRegistry.counter("person.changes.published").increment();
+            }
+        } finally {
+            fanOut.unlock();
+        }
+        return changes.size();
+    }
+
+    private void skip(long from, long to, long now) {
+        if (to - from > MAX_PENDING) {
+            logger.warning("Skipped " + (to - from) + " seqs from " + from + " without waiting for them to fill");
+            return;
+        }
+        for (long seq = from; seq < to; seq++) {
+            pending.put(seq, now + lateWindow.toNanos());
+        }
+    }
+
+    //The holes that filled after all are sent as they are; the ones past late-window are closed for good
+    void fanOutLateChanges() {
+        if (pending.isEmpty()) return;
+
+        long now = System.nanoTime();
+        pending.values().removeIf(deadline -> now - deadline > 0);
+        List<Long> holes = pending.keySet().stream().limit(batchSize).toList();
+        List<PersonChangeVO> changes = readHoles(holes);
+        if (changes.isEmpty()) return;
+
+        fanOut.lock();
+        try {
+            for (PersonChangeVO change : changes) {
+                pending.remove(change.getSeq());
+                meterRegistry.counter("person.changes.late").increment();
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.offer(change, true);
+                }
+            }
+        } finally {
+            fanOut.unlock();
+        }
+    }
+
+    // The newest row is always kept, so the oldest seq tells which ids were pruned (see isPruned)
+    private void pruneIfDue() {
+        long now = System.nanoTime();
+        if (now < nextPrune) return;
+        nextPrune = now + pruneInterval.toNanos();
+
+        Long newest = jdbcTemplate.queryForObject("select max(seq) from person_change", Long.class);
+        if (newest == null) return;
+        int pruned = jdbcTemplate.update(
+                "delete from person_change where changed_at < timestampadd(second, ?, current_timestamp(3)) and seq < ?",
+                -retention.toSeconds(), newest);
+        if (pruned > 0) {
+            logger.info("Pruned " + pruned + " changes older than " + retention + " from the change log");
+        }
+    }
+
+    private PersonChangeVO change(ResultSet rs, int rowNum) throws SQLException {
+        String payload = rs.getString("payload");
+        PersonVO person;
+        try {
+            person = payload == null ? null : mapper.readValue(payload, PersonVO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload of change " + rs.getLong("seq"), e);
+        }
+        return new PersonChangeVO(rs.getLong("seq"), PersonChangeVO.Type.valueOf(rs.getString("type")),
+                rs.getLong("person_id"), person, rs.getTimestamp("changed_at").toInstant());
+    }
+
+    //Every change up to here is in the log for good; a full read taken after it is covered by the changes since it
+    public long getPublished() {
+        return published;
+    }
+
+    @Override
+    public void start() {
+        // Subscribers without Last-Event-ID start from what is in the log at startup
+        Long newest = jdbcTemplate.queryForObject("select max(seq) from person_change", Long.class);
+        published = newest == null ? 0 : newest;
+
+        // One thread per subscriber, virtual with spring.threads.virtual.enabled; slots already caps them
+        senders = sendersBuilder
+                .threadNamePrefix("person-changes-")
+                .concurrencyLimit(maxSubscribers)
+                .taskTerminationTimeout(Duration.ofSeconds(1))
+                .build();
+        running = true;
+        poller = new Thread(this::poll, "person-changes-poller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+        if (senders != null) {
+            // Interrupts the senders still streaming, and waits up to taskTerminationTimeout for them
+            senders.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
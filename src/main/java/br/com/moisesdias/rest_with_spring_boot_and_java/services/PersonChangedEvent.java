@@ -0,0 +1,22 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+
+/**
+ * Published by {@link PersonServices} for every person written; {@code person} is null when it was deleted.
+ * Listeners that mirror the table should use {@code @TransactionalEventListener} to only see committed writes.
+ */
+public record PersonChangedEvent(Long id, Person person) {
+
+    public static PersonChangedEvent saved(Person person) {
+        return new PersonChangedEvent(person.getId(), person);
+    }
+
+    public static PersonChangedEvent deleted(Long id) {
+        return new PersonChangedEvent(id, null);
+    }
+
+    public boolean isDeleted() {
+        return person == null;
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the rows of {@link #SQL} to the output as they come off the cursor, column by column:
+ * no Person or PersonVO is built for them and nothing but the write buffer is held.
+ * Field names are those of PersonVO in both formats.
+ */
+abstract class PersonExportWriter implements RowCallbackHandler {
+
+    static final String SQL = "select id, first_name, last_name, address, gender, email, version from person order by id";
+
+    private static final String[] FIELDS = {"id", "firstName", "lastName", "address", "gender", "email", "version"};
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static PersonExportWriter of(PersonExportFormat format, OutputStream out) {
+        try {
+            return format == PersonExportFormat.CSV ? new Csv(out) : new Ndjson(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public final void processRow(ResultSet row) throws SQLException {
+        try {
+            write(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    abstract void write(ResultSet row) throws SQLException, IOException;
+
+    //Flushes what is still buffered; the output stream itself is left open
+    abstract void finish() throws IOException;
+
+    private static final class Ndjson extends PersonExportWriter {
+
+        private static final SerializedString[] NAMES = new SerializedString[FIELDS.length];
+
+        static {
+            for (int i = 0; i < FIELDS.length; i++) {
+                NAMES[i] = new SerializedString(FIELDS[i]);
+            }
+        }
+
+        private final JsonGenerator generator;
+
+        Ndjson(OutputStream out) throws IOException {
+            generator = JSON.createGenerator(out);
+            // Lines are separated by the newline written after each object, not by a space
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(ResultSet row) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAMES[0]);
+            generator.writeNumber(row.getLong(1));
+            for (int column = 2; column <= 6; column++) {
+                generator.writeFieldName(NAMES[column - 1]);
+                generator.writeString(row.getString(column));
+            }
+            generator.writeFieldName(NAMES[6]);
+            generator.writeNumber(row.getLong(7));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    //RFC 4180: CRLF line endings, fields quoted only when they hold a comma, a quote or a line break
+    private static final class Csv extends PersonExportWriter {
+
+        private final Writer writer;
+
+        Csv(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(String.join(",", FIELDS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(ResultSet row) throws SQLException, IOException {
+            writer.write(Long.toString(row.getLong(1)));
+            for (int column = 2; column <= 6; column++) {
+                writer.write(',');
+                writeField(row.getString(column));
+            }
+            writer.write(',');
+            writer.write(Long.toString(row.getLong(7)));
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) return;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
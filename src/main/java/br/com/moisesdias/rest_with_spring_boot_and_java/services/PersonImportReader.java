@@ -0,0 +1,88 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts the upload into raw records without parsing them, so the parsing can run in parallel:
+ * NDJSON lines, or CSV records, which only end at a line break outside quotes.
+ * Blank lines are skipped; a trailing \r is dropped.
+ */
+final class PersonImportReader {
+
+    private final Reader reader;
+    private final boolean csv;
+    private final StringBuilder record = new StringBuilder(256);
+    private boolean eof;
+
+    PersonImportReader(Reader reader, PersonExportFormat format) {
+        this.reader = reader;
+        this.csv = format == PersonExportFormat.CSV;
+    }
+
+    //Null at the end of the input
+    String next() throws IOException {
+        while (!eof) {
+            record.setLength(0);
+            boolean quoted = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '"' && csv) {
+                    quoted = !quoted;
+                } else if (c == '\n' && !quoted) {
+                    break;
+                }
+                record.append((char) c);
+            }
+            eof = c == -1;
+            int length = record.length();
+            if (length > 0 && record.charAt(length - 1) == '\r') {
+                record.setLength(length - 1);
+            }
+            if (!record.isEmpty() && !record.toString().isBlank()) {
+                return record.toString();
+            }
+        }
+        return null;
+    }
+
+    //Skips records already imported by an earlier run; returns how many were actually there
+    long skip(long records) throws IOException {
+        long skipped = 0;
+        while (skipped < records && next() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    //RFC 4180 fields of one CSV record: quotes are removed and doubled quotes unescaped
+    static List<String> fields(String record) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder(32);
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonImportResultVO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Imports person.import.file on startup, for instance as a one-off job that exits when done:
+ * java -jar app.jar --spring.main.web-application-type=none --person.import.file=people.csv
+ * Running the same command again after a failure resumes from the checkpoint.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "person.import", name = "file")
+public class PersonImportRunner implements ApplicationRunner {
+
+    private Logger logger = Logger.getLogger(PersonImportRunner.class.getName());
+
+    private final PersonImportServices importServices;
+    private final Path file;
+    private final String format;
+
+    public PersonImportRunner(PersonImportServices importServices,
+                              @Value("${person.import.file}") Path file,
+                              @Value("${person.import.format:}") String format) {
+        this.importServices = importServices;
+        this.file = file;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        // Without an explicit format the extension decides, as in the file names of GET /person/export
+        String name = StringUtils.hasText(format) ? format : StringUtils.getFilenameExtension(file.getFileName().toString());
+        PersonImportResultVO result = importServices.importFile(file, PersonExportFormat.of(name));
+        logger.info("Import of " + file + " finished: " + result.getRecords() + " records, " + result.getUpserted()
+                + " upserted, " + result.getDuplicates() + " duplicates, " + result.getFailed() + " failed"
+                + (result.getFailed() > 0 ? ", see " + file + PersonImportServices.ERRORS_SUFFIX : ""));
+    }
+}
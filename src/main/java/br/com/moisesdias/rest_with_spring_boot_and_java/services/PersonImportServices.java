@@ -0,0 +1,450 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonImportResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk import of the files written by GET /person/export (NDJSON, or CSV with a header line).
+ * The file is cut into chunks of raw records which are parsed, validated and deduplicated by
+ * e-mail in parallel; a single writer then upserts the chunks in file order, one transaction
+ * each, so a later row for an e-mail always wins. After every chunk a checkpoint is written next
+ * to the file, and a run interrupted for any reason resumes after the last committed chunk.
+ * Every upserted row is also appended to the change log, in the transaction of its chunk.
+ */
+@Service
+@Profile("!reactive") // Writes through the JPA transaction manager and evicts the people cache of the services
+public class PersonImportServices {
+
+    static final String CHECKPOINT_SUFFIX = ".checkpoint.json";
+    static final String ERRORS_SUFFIX = ".errors.ndjson";
+
+    private static final Set<String> CSV_COLUMNS = Set.of("firstName", "lastName", "address", "gender", "email");
+
+    // The unique e-mail decides between insert and update; the reserved id is only used by inserts.
+    // VALUES() rather than an alias of the new row, which H2 does not support
+    private static final String UPSERT_SQL = """
+            insert into person (id, first_name, last_name, address, gender, email, version)
+            values (?, ?, ?, ?, ?, ?, 0)
+            on duplicate key update first_name = values(first_name), last_name = values(last_name),
+                address = values(address), gender = values(gender), version = version + 1""";
+
+    private Logger logger = Logger.getLogger(PersonImportServices.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper mapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final PersonReadCache readCache;
+    private final ObjectProvider<PersonSuggestServices> suggestServices;
+    private final PersonChangeLog changeLog;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration progressInterval;
+
+    public PersonImportServices(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ObjectMapper mapper, Validator validator, MeterRegistry meterRegistry,
+                                PersonReadCache readCache,
+                                ObjectProvider<PersonSuggestServices> suggestServices, PersonChangeLog changeLog,
+                                @Value("${person.import.chunk-size:1000}") int chunkSize,
+                                @Value("${person.import.parallelism:0}") int parallelism,
+                                @Value("${person.import.progress-interval:10s}") Duration progressInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mapper = mapper;
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
+        this.readCache = readCache;
+        this.suggestServices = suggestServices;
+        this.changeLog = changeLog;
+        this.chunkSize = Math.max(1, chunkSize);
+        // 0 means one parser per core, the writer being mostly idle waiting on the database
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.progressInterval = progressInterval;
+    }
+
+    //One row that failed to parse or validate, as written to the errors file
+    record ImportError(long record, String email, String message) {
+    }
+
+    //The parsed side of a chunk: the rows to upsert, keyed by lower-case e-mail
+    private record ParsedChunk(int records, List<Person> people, int duplicates, List<ImportError> errors) {
+    }
+
+    public PersonImportResultVO importFile(Path source, PersonExportFormat format) throws IOException {
+        Path checkpointFile = sibling(source, CHECKPOINT_SUFFIX);
+        Path errorsFile = sibling(source, ERRORS_SUFFIX);
+
+        PersonImportResultVO checkpoint = newCheckpoint(source);
+        PersonImportResultVO saved = readCheckpoint(checkpointFile);
+        if (saved != null && sameSource(saved, checkpoint)) {
+            if (saved.isComplete()) {
+                logger.info("Import of " + source + " already completed, see " + checkpointFile);
+                return saved;
+            }
+            checkpoint = saved;
+            logger.info("Resuming import of " + source + " after record " + checkpoint.getRecords());
+        } else if (saved != null) {
+            logger.warning("Ignoring " + checkpointFile + ", it was written for another version of " + source);
+        }
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, parserThreads());
+        try (Reader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             FileChannel errors = FileChannel.open(errorsFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Errors past the checkpoint belong to chunks that will be parsed again
+            errors.truncate(checkpoint.getErrorsBytes());
+            errors.position(checkpoint.getErrorsBytes());
+
+            PersonImportReader records = new PersonImportReader(reader, format);
+            Map<String, Integer> columns = format == PersonExportFormat.CSV ? header(records.next()) : null;
+            long skipped = records.skip(checkpoint.getRecords());
+            if (skipped < checkpoint.getRecords()) {
+                throw new IllegalStateException(source + " has fewer records than its checkpoint");
+            }
+            run(records, columns, parsers, errors, checkpoint, checkpointFile);
+        } finally {
+            parsers.shutdownNow();
+            invalidateCaches();
+        }
+        return checkpoint;
+    }
+
+    private void run(PersonImportReader records, Map<String, Integer> columns, ExecutorService parsers,
+                     FileChannel errors, PersonImportResultVO checkpoint, Path checkpointFile) throws IOException {
+        long started = System.nanoTime();
+        long startRecords = checkpoint.getRecords();
+        long nextProgress = started + progressInterval.toNanos();
+
+        // Up to two chunks per parser are parsed ahead of the writer
+        Deque<Future<ParsedChunk>> window = new ArrayDeque<>();
+        long firstRecord = checkpoint.getRecords() + 1;
+        boolean eof = false;
+        while (true) {
+            while (!eof && window.size() < parallelism * 2) {
+                List<String> chunk = new ArrayList<>(chunkSize);
+                String record;
+                while (chunk.size() < chunkSize && (record = records.next()) != null) {
+                    chunk.add(record);
+                }
+                eof = chunk.size() < chunkSize;
+                if (!chunk.isEmpty()) {
+                    long first = firstRecord;
+                    window.add(parsers.submit(() -> parse(chunk, first, columns)));
+                    firstRecord += chunk.size();
+                }
+            }
+            if (window.isEmpty()) break;
+
+            ParsedChunk parsed = await(window.poll());
+            upsert(parsed.people());
+            appendErrors(errors, parsed.errors());
+
+            checkpoint.setRecords(checkpoint.getRecords() + parsed.records());
+            checkpoint.setUpserted(checkpoint.getUpserted() + parsed.people().size());
+            checkpoint.setDuplicates(checkpoint.getDuplicates() + parsed.duplicates());
+            checkpoint.setFailed(checkpoint.getFailed() + parsed.errors().size());
+            checkpoint.setErrorsBytes(errors.position());
+            writeCheckpoint(checkpointFile, checkpoint);
+            meterRegistry.counter("person.import.records", "outcome", "upserted").increment(parsed.people().size());
+            meterRegistry.counter("person.import.records", "outcome", "duplicate").increment(parsed.duplicates());
+            meterRegistry.counter("person.import.records", "outcome", "failed").increment(parsed.errors().size());
+
+            long now = System.nanoTime();
+            if (now >= nextProgress) {
+                logProgress(checkpoint, checkpoint.getRecords() - startRecords, now - started);
+                nextProgress = now + progressInterval.toNanos();
+            }
+        }
+
+        checkpoint.setComplete(true);
+        writeCheckpoint(checkpointFile, checkpoint);
+        logProgress(checkpoint, checkpoint.getRecords() - startRecords, System.nanoTime() - started);
+    }
+
+    private ParsedChunk parse(List<String> records, long firstRecord, Map<String, Integer> columns) {
+        // Last row wins, the way the writer also treats e-mails repeated across chunks
+        Map<String, Person> byEmail = new LinkedHashMap<>(records.size() * 2);
+        List<ImportError> errors = new ArrayList<>();
+        int duplicates = 0;
+        for (int i = 0; i < records.size(); i++) {
+            long record = firstRecord + i;
+            Person person;
+            try {
+                person = columns == null ? fromJson(records.get(i)) : fromCsv(records.get(i), columns);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                errors.add(new ImportError(record, null, e instanceof JsonProcessingException json
+                        ? json.getOriginalMessage() : e.getMessage()));
+                continue;
+            }
+            String violation = validate(person);
+            if (violation != null) {
+                errors.add(new ImportError(record, person.getEmail(), violation));
+                continue;
+            }
+            if (byEmail.put(person.getEmail().toLowerCase(Locale.ROOT), person) != null) {
+                duplicates++;
+            }
+        }
+        return new ParsedChunk(records.size(), new ArrayList<>(byEmail.values()), duplicates, errors);
+    }
+
+    private Person fromJson(String record) throws JsonProcessingException {
+        Person person = mapper.readValue(record, Person.class);
+        // Ids and versions of the exporting database mean nothing here
+        person.setId(null);
+        person.setVersion(null);
+        return trimmed(person);
+    }
+
+    private static Person fromCsv(String record, Map<String, Integer> columns) {
+        List<String> fields = PersonImportReader.fields(record);
+        return trimmed(new Person(field(fields, columns, "firstName"), field(fields, columns, "lastName"),
+                field(fields, columns, "address"), field(fields, columns, "gender"), field(fields, columns, "email")));
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        if (index >= fields.size()) {
+            throw new IllegalArgumentException("Expected at least " + (index + 1) + " fields, found " + fields.size());
+        }
+        return fields.get(index);
+    }
+
+    private static Person trimmed(Person person) {
+        person.setFirstName(trim(person.getFirstName()));
+        person.setLastName(trim(person.getLastName()));
+        person.setAddress(trim(person.getAddress()));
+        person.setGender(trim(person.getGender()));
+        person.setEmail(trim(person.getEmail()));
+        return person;
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private String validate(Person person) {
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) return null;
+
+        ConstraintViolation<Person> violation = violations.iterator().next();
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private static Map<String, Integer> header(String line) {
+        if (line == null) {
+            throw new BadRequestException("The CSV file is empty, expected a header line");
+        }
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        List<String> names = PersonImportReader.fields(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new BadRequestException("The CSV header has no " + column + " column, expected " + CSV_COLUMNS);
+            }
+        }
+        return columns;
+    }
+
+    private void upsert(List<Person> people) {
+        if (people.isEmpty()) return;
+
+        long firstId = reserveIds(people.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    Person person = people.get(i);
+                    // Rows that turn out to be updates leave a gap in the ids, which is harmless
+                    statement.setLong(1, firstId + i);
+                    statement.setString(2, person.getFirstName());
+                    statement.setString(3, person.getLastName());
+                    statement.setString(4, person.getAddress());
+                    statement.setString(5, person.getGender());
+                    statement.setString(6, person.getEmail());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return people.size();
+                }
+            });
+            changeLog.append(written(people));
+        });
+    }
+
+    // The rows as upserted, ids and versions included, for the change log
+    private List<PersonChangedEvent> written(List<Person> people) {
+        String placeholders = String.join(", ", Collections.nCopies(people.size(), "?"));
+        return jdbcTemplate.query("select id, first_name, last_name, address, gender, email, version from person"
+                        + " where email in (" + placeholders + ") order by id",
+                (rs, rowNum) -> {
+                    Person person = new Person(rs.getString("first_name"), rs.getString("last_name"),
+                            rs.getString("address"), rs.getString("gender"), rs.getString("email"));
+                    person.setId(rs.getLong("id"));
+                    person.setVersion(rs.getLong("version"));
+                    return PersonChangedEvent.saved(person);
+                },
+                people.stream().map(Person::getEmail).toArray());
+    }
+
+    // Takes ids from the same id_generator row as Hibernate, which uses the block above the stored value:
+    // bumping it by count hands this import the next count ids and Hibernate the ones after those
+    private long reserveIds(int count) {
+        Long first = transactionTemplate.execute(status -> {
+            Long current = jdbcTemplate.queryForObject(
+                    "select gen_value from id_generator where gen_name = 'person' for update", Long.class);
+            jdbcTemplate.update("update id_generator set gen_value = ? where gen_name = 'person'", current + count);
+            return current + 1;
+        });
+        return first;
+    }
+
+    private void appendErrors(FileChannel errors, List<ImportError> importErrors) throws IOException {
+        if (importErrors.isEmpty()) return;
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(importErrors.size() * 128);
+        for (ImportError error : importErrors) {
+            lines.write(mapper.writeValueAsBytes(error));
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            errors.write(buffer);
+        }
+        // The checkpoint records this length, so the errors must be on disk before it
+        errors.force(false);
+    }
+
+    private PersonImportResultVO newCheckpoint(Path source) throws IOException {
+        PersonImportResultVO checkpoint = new PersonImportResultVO();
+        checkpoint.setSource(source.toAbsolutePath().toString());
+        checkpoint.setSourceSize(Files.size(source));
+        checkpoint.setSourceModified(Files.getLastModifiedTime(source).toMillis());
+        return checkpoint;
+    }
+
+    private static boolean sameSource(PersonImportResultVO saved, PersonImportResultVO current) {
+        return current.getSource().equals(saved.getSource())
+                && saved.getSourceSize() == current.getSourceSize()
+                && saved.getSourceModified() == current.getSourceModified();
+    }
+
+    private PersonImportResultVO readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) return null;
+        try {
+            return mapper.readValue(checkpointFile.toFile(), PersonImportResultVO.class);
+        } catch (JsonProcessingException e) {
+            logger.warning("Ignoring unreadable " + checkpointFile + ": " + e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    // Written aside and renamed over the old one, so a crash leaves either checkpoint but never half of one
+    private void writeCheckpoint(Path checkpointFile, PersonImportResultVO checkpoint) throws IOException {
+        Path temporary = sibling(checkpointFile, ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(mapper.writeValueAsBytes(checkpoint));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // The rows were written behind the back of the services, so the people cache cannot be trusted. The list
+    // cache and the ETags follow person_table_version, which the change log bumped with every chunk
+    private void invalidateCaches() {
+        readCache.evictAll();
+
+        PersonSuggestServices suggest = suggestServices.getIfAvailable();
+        if (suggest != null) {
+            try {
+                suggest.rebuild();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not rebuild the suggest index after the import", e);
+            }
+        }
+    }
+
+    private void logProgress(PersonImportResultVO checkpoint, long records, long elapsedNanos) {
+        long perSecond = elapsedNanos == 0 ? 0 : records * 1_000_000_000L / elapsedNanos;
+        logger.info("Imported " + checkpoint.getRecords() + " records of " + checkpoint.getSource()
+                + " (" + perSecond + " records/s): " + checkpoint.getUpserted() + " upserted, "
+                + checkpoint.getDuplicates() + " duplicates, " + checkpoint.getFailed() + " failed");
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    private static ThreadFactory parserThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "person-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,245 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonReactiveRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Reactive counterpart of {@link PersonServices}, with the same rules and error messages.
+ * Every write runs in one transaction with its person_change rows and the person_table_version bump,
+ * the same outbox {@link PersonChangeLog} keeps for the servlet stack.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PersonReactiveServices {
+
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "uk_person_email";
+
+    private Logger logger = Logger.getLogger(PersonReactiveServices.class.getName());
+
+    @Autowired
+    PersonReactiveRepository repository;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Autowired
+    TransactionalOperator transactionalOperator;
+
+    public Flux<Person> findAll() {
+        logger.fine("Finding all people!");
+        return repository.findAll();
+    }
+
+    public Mono<String> findTableVersion() {
+        return repository.findTableVersion().map(String::valueOf);
+    }
+
+    public Mono<PersonPageVO> findPage(Long after, int limit) {
+        logger.fine("Finding one page of people!");
+
+        int pageSize = Math.max(1, Math.min(limit, PersonServices.MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether there is a next page without a count query
+        return repository.findByIdGreaterThan(after == null ? 0L : after, pageSize + 1)
+                .map(PersonVO::of)
+                .collectList()
+                .map(people -> {
+                    if (people.size() <= pageSize) {
+                        return new PersonPageVO(people, null);
+                    }
+                    List<PersonVO> content = new ArrayList<>(people.subList(0, pageSize));
+                    return new PersonPageVO(content, content.get(pageSize - 1).getId());
+                });
+    }
+
+    public Mono<Person> findById(Long id) {
+        logger.fine("Finding one person!");
+
+        return repository.findById(id)
+                .switchIfEmpty(Mono.fromRunnable(() -> countNotFound("findById")));
+    }
+
+    public Mono<Person> create(Person person) {
+        logger.fine("Creating one person!");
+
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (!violations.isEmpty()) {
+            return Mono.error(new ConstraintViolationException(violations));
+        }
+        // The unique index on email is the uniqueness check: one round trip and safe under concurrency
+        return repository.allocateIds(1)
+                .flatMap(id -> {
+                    person.setId(id);
+                    person.setVersion(0L);
+                    return repository.insertAll(List.of(person));
+                })
+                .then(Mono.defer(() -> logChanges(saved(List.of(person)))))
+                .as(transactionalOperator::transactional)
+                .thenReturn(person)
+                .onErrorMap(PersonReactiveServices::isDuplicateEmail,
+                        e -> notFound("create", "Person already exist with give e-mail: " + person.getEmail()));
+    }
+
+    private static boolean isDuplicateEmail(Throwable e) {
+        return e instanceof DataIntegrityViolationException
+                && e.getMessage() != null
+                && e.getMessage().toLowerCase().contains(EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    /**
+     * Consumes the people as they arrive, {@link PersonServices#BATCH_CHUNK_SIZE} at a time;
+     * each chunk is written with a single multi-row INSERT.
+     */
+    public Flux<BatchItemResultVO> createAll(Flux<Person> people) {
+        logger.fine("Creating a batch of people!");
+
+        return people.buffer(PersonServices.BATCH_CHUNK_SIZE)
+                .index()
+                .concatMap(chunk -> createChunk(chunk.getT2(),
+                        (int) (chunk.getT1() * PersonServices.BATCH_CHUNK_SIZE)));
+    }
+
+    private Flux<BatchItemResultVO> createChunk(List<Person> chunk, int offset) {
+        Set<String> emails = new HashSet<>();
+        for (Person person : chunk) {
+            if (person.getEmail() != null) emails.add(person.getEmail());
+        }
+        return repository.findExistingEmails(emails)
+                .collect(HashSet<String>::new, Set::add)
+                .flatMapMany(taken -> {
+                    String[] errors = new String[chunk.size()];
+                    List<Person> toSave = new ArrayList<>(chunk.size());
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Person person = chunk.get(i);
+                        errors[i] = validate(person);
+                        if (errors[i] == null && !taken.add(person.getEmail())) {
+                            errors[i] = "Person already exist with give e-mail: " + person.getEmail();
+                        }
+                        if (errors[i] == null) {
+                            toSave.add(person);
+                        }
+                    }
+                    Mono<Void> saved = toSave.isEmpty() ? Mono.empty() : repository.allocateIds(toSave.size())
+                            .flatMap(first -> {
+                                for (int i = 0; i < toSave.size(); i++) {
+                                    toSave.get(i).setId(first + i);
+                                    toSave.get(i).setVersion(0L);
+                                }
+                                return repository.insertAll(toSave);
+                            })
+                            .then(Mono.defer(() -> logChanges(saved(toSave))))
+                            .as(transactionalOperator::transactional);
+                    return saved.thenMany(Flux.range(0, chunk.size()).map(i -> {
+                        Person person = chunk.get(i);
+                        return errors[i] == null
+                                ? BatchItemResultVO.created(offset + i, person.getId(), person.getEmail())
+                                : BatchItemResultVO.failed(offset + i, person.getEmail(), errors[i]);
+                    }));
+                });
+    }
+
+    private String validate(Person person) {
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) return null;
+
+        ConstraintViolation<Person> violation = violations.iterator().next();
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    public Mono<Person> update(Person person, Long expectedVersion) {
+        logger.fine("Updating one person!");
+
+        return repository.update(person, expectedVersion)
+                .flatMap(rows -> {
+                    if (rows > 0) {
+                        Mono<Long> version = expectedVersion == null
+                                ? repository.findVersionById(person.getId())
+                                : Mono.just(expectedVersion + 1);
+                        return version.flatMap(written -> {
+                            person.setVersion(written);
+                            return logChanges(saved(List.of(person))).thenReturn(person);
+                        });
+                    }
+                    Mono<Boolean> exists = expectedVersion == null
+                            ? Mono.just(false)
+                            : repository.existsById(person.getId());
+                    return exists.flatMap(found -> {
+                        if (found) {
+                            return Mono.error(new PreconditionFailedException(
+                                    "Person was modified, it is no longer at version " + expectedVersion));
+                        }
+                        countNotFound("update");
+                        return Mono.empty();
+                    });
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Void> delete(Long id) {
+        logger.fine("Deleting one person!");
+
+        return repository.deleteById(id)
+                .flatMap(rows -> rows == 0
+                        ? Mono.error(notFound("delete", "No records found for this ID!"))
+                        : logChanges(Collections.singletonMap(id, null)))
+                .as(transactionalOperator::transactional);
+    }
+
+    //The outbox rows, then the table version as the last statement before the commit
+    private Mono<Void> logChanges(Map<Long, String> payloads) {
+        return repository.insertChanges(payloads).then(repository.bumpTableVersion());
+    }
+
+    private Map<Long, String> saved(List<Person> people) {
+        Map<Long, String> payloads = new LinkedHashMap<>();
+        for (Person person : people) {
+            try {
+                payloads.put(person.getId(), mapper.writeValueAsString(PersonVO.of(person)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize person " + person.getId(), e);
+            }
+        }
+        return payloads;
+    }
+
+    private ResourceNotFoundException notFound(String method, String message) {
+        countNotFound(method);
+        return new ResourceNotFoundException(message);
+    }
+
+    private void countNotFound(String method) {
+        meterRegistry.counter("person.not.found", "method", method).increment();
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.config.CacheConfig;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Reads {@link PersonServices#findById} through the people cache, and evicts a person once a write to it
+ * committed. Done by hand rather than with {@code @Cacheable}/{@code @CacheEvict}, which let a load that read
+ * the row before a write put it after that write's eviction, where it stayed for the whole TTL: every write
+ * bumps the generation of its id before evicting, and a load whose id was bumped while it ran drops its put.
+ * The outermost advice, see {@link CacheConfig}.
+ */
+@Aspect
+@Component
+@Profile("!reactive")
+// Right after Spring's ExposeInvocationInterceptor (HIGHEST_PRECEDENCE + 1): the id is bound through it
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class PersonReadCache {
+
+    //Ids share generations by stripe: a write to one only costs the others of its stripe a put
+    private static final int STRIPES = 1024;
+
+    private final Cache cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    public PersonReadCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfig.PEOPLE_CACHE);
+    }
+
+    //Misses are not cached, a person created later under the same id must be found
+    @Around("execution(* br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices.findById(Long)) && args(id)")
+    public Object readThrough(ProceedingJoinPoint call, Long id) throws Throwable {
+        if (id == null) {
+            return call.proceed();
+        }
+        Cache.ValueWrapper cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of((PersonVO) cached.get());
+        }
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        @SuppressWarnings("unchecked")
+        Optional<PersonVO> person = (Optional<PersonVO>) call.proceed();
+        if (person.isPresent()) {
+            cache.put(id, person.get());
+            // Checked after the put: either the write's eviction comes after it, or the put is taken back here
+            if (generations.get(stripe) != generation) {
+                cache.evict(id);
+            }
+        }
+        return person;
+    }
+
+    //Evicted even when the write fails: a 412 is often the sign of a cached person gone stale
+    @Around("execution(* br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices.update(..)) && args(person, ..)")
+    public Object evictAfterUpdate(ProceedingJoinPoint call, Person person) throws Throwable {
+        try {
+            return call.proceed();
+        } finally {
+            evict(person.getId());
+        }
+    }
+
+    @Around("execution(* br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices.delete(Long)) && args(id)")
+    public Object evictAfterDelete(ProceedingJoinPoint call, Long id) throws Throwable {
+        try {
+            return call.proceed();
+        } finally {
+            evict(id);
+        }
+    }
+
+    public void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        generations.incrementAndGet(stripe(id));
+        cache.evict(id);
+    }
+
+    //For writes that bypass PersonServices and may have touched anyone
+    public void evictAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.clear();
+    }
+
+    private static int stripe(Long id) {
+        return (Long.hashCode(id) * 0x9E3779B9 >>> 16) & (STRIPES - 1);
+    }
+}
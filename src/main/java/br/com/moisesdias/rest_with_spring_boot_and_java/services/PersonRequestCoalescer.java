@@ -0,0 +1,80 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lets concurrent {@link PersonServices#findById} calls for the same id share a single call: the first one runs it
+ * and the ones arriving while it runs get its result, or its exception, instead of each running the same query.
+ * Sits between the cache and the admission limit, so a burst of misses on one person takes one permit and one
+ * connection, not one per request; see {@link br.com.moisesdias.rest_with_spring_boot_and_java.config.CacheConfig}.
+ */
+@Aspect
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "person.coalescing", name = "enabled", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class PersonRequestCoalescer {
+
+    private final ConcurrentMap<Long, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public PersonRequestCoalescer(MeterRegistry meterRegistry) {
+        this.coalesced = meterRegistry.counter("person.coalesced", "method", "findById");
+        meterRegistry.gaugeMapSize("person.coalescing.in.flight", Tags.empty(), inFlight);
+    }
+
+    @Around("execution(* br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices.findById(Long)) && args(id)")
+    public Object coalesce(ProceedingJoinPoint call, Long id) throws Throwable {
+        if (id == null) {
+            return call.proceed();
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(id, flight);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        // Removed before it completes, so a caller arriving from now on runs a new call instead of reusing this one
+        try {
+            Object result = call.proceed();
+            inFlight.remove(id, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(id, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    //A caller arriving after a write commits must not get a row read before it, so it starts a new call
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+        inFlight.remove(event.id());
+    }
+
+    // Not interruptible, like the call it waits for, which is bounded by the query and transaction timeouts
+    private static Object await(CompletableFuture<Object> running) throws Throwable {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+}
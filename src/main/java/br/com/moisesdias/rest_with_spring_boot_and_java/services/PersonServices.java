@@ -1,70 +1,371 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.services;
 
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangesPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchCriteriaVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
 import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
 import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
 import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonSpecifications;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive") // JPA is not available on the reactive stack, see PersonReactiveServices
+@Timed(value = "person.services", histogram = true)
 public class PersonServices {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int BATCH_CHUNK_SIZE = 500;
+    public static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "uk_person_email";
+
+    //Sortable attributes of /person/search, each backed by an index
+    private static final Set<String> SEARCH_SORTS = Set.of("id", "firstName", "lastName", "email");
+
     private Logger logger = Logger.getLogger(PersonServices.class.getName());
 
     @Autowired
     PersonRepository repository;
 
-    public List<Person> findAll() {
-        logger.info("Finding all people!");
-        return repository.findAll();
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PersonChangeStream changeStream;
+
+    @Transactional(readOnly = true)
+    public List<PersonVO> findAll() {
+        logger.fine("Finding all people!");
+        return repository.findAllPersonVO();
     }
 
-    public Person update(Person person) {
-        logger.info("Updating one person!");
+    //Cheap stand-in for the whole table, used as the ETag of findAll; read-only so that with a
+    //replica it is read from the same database as the rows
+    @Transactional(readOnly = true)
+    public String findTableVersion() {
+        return Long.toString(repository.findTableVersion());
+    }
 
-        var entity = repository.findById(person.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("No records found for this ID!"));
+    //Where a client that reads findAll next starts syncing from; taken before the rows, so it can only be older than
+    //them, and capped at the log of the database they come from, which with a lagging replica is behind the primary
+    @Transactional(readOnly = true)
+    public String findSyncToken() {
+        long published = changeStream.getPublished();
+        Long newest = jdbcTemplate.queryForObject("select max(seq) from person_change", Long.class);
+        return changeStream.tokenAt(Math.min(published, newest == null ? 0L : newest));
+    }
 
-        entity.setFirstName(person.getFirstName());
-        entity.setLastName(person.getLastName());
-        entity.setAddress(person.getAddress());
-        entity.setGender(person.getGender());
+    //Not read-only: a replica may not have every change the primary has published yet, and the token would skip it
+    public PersonChangesPageVO findChangesSince(String token, int limit) {
+        logger.fine("Finding the changes since " + token + "!");
 
-        return repository.save(person);
+        return changeStream.changesSince(ChangeToken.decode(token), Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 
-    public void delete(Long id) {
-        logger.info("Deleting one person!");
+    @Transactional(readOnly = true)
+    public PersonPageVO findPage(Long after, int limit) {
+        logger.fine("Finding one page of people!");
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether there is a next page without a count query
+        List<PersonVO> people = repository.findPersonVOByIdGreaterThan(
+                after == null ? 0L : after, Limit.of(pageSize + 1));
+
+        if (people.size() <= pageSize) {
+            return new PersonPageVO(people, null);
+        }
+        List<PersonVO> content = new ArrayList<>(people.subList(0, pageSize));
+        return new PersonPageVO(content, content.get(pageSize - 1).getId());
+    }
+
+    @Transactional(readOnly = true)
+    public PersonSearchPageVO search(PersonSearchCriteriaVO criteria) {
+        logger.fine("Searching people!");
+
+        String sort = criteria.getSort() == null ? "id" : criteria.getSort();
+        if (!SEARCH_SORTS.contains(sort)) {
+            throw new BadRequestException("Unsupported sort: " + sort + ", expected one of " + SEARCH_SORTS);
+        }
+        String direction = criteria.getDirection() == null ? "asc" : criteria.getDirection().toLowerCase();
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new BadRequestException("Unsupported direction: " + direction + ", expected asc or desc");
+        }
+        boolean ascending = direction.equals("asc");
+
+        Specification<Person> spec = Specification.allOf(
+                PersonSpecifications.matches("firstName", criteria.getFirstName()),
+                PersonSpecifications.matches("lastName", criteria.getLastName()),
+                PersonSpecifications.matches("email", criteria.getEmail()),
+                PersonSpecifications.matches("gender", criteria.getGender()));
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            SearchCursor cursor = SearchCursor.decode(criteria.getCursor());
+            if (!cursor.sort().equals(sort) || !cursor.direction().equals(direction)) {
+                throw new BadRequestException("The cursor belongs to a search sorted by " + cursor.sort() + " " + cursor.direction());
+            }
+            spec = spec.and(PersonSpecifications.after(sort, ascending, cursor.value(), cursor.id()));
+        }
+
+        Sort.Direction sortDirection = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort order = sort.equals("id")
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, sort, "id");
+        int pageSize = Math.max(1, Math.min(criteria.getLimit(), MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether there is a next page without a count query
+        // Specifications select entities; the read-only transaction skips their snapshots and flush
+        List<PersonVO> people = repository.findBy(spec, query -> query.sortBy(order).limit(pageSize + 1).all())
+                .stream().map(PersonVO::of).toList();
+
+        if (people.size() <= pageSize) {
+            return new PersonSearchPageVO(people, null);
+        }
+        List<PersonVO> content = new ArrayList<>(people.subList(0, pageSize));
+        PersonVO last = content.get(pageSize - 1);
+        String value = switch (sort) {
+            case "firstName" -> last.getFirstName();
+            case "lastName" -> last.getLastName();
+            case "email" -> last.getEmail();
+            default -> "";
+        };
+        return new PersonSearchPageVO(content, new SearchCursor(sort, direction, value, last.getId()).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<PersonVO> action) {
+        logger.fine("Streaming all people!");
+
+        // Projections are not managed, the persistence context stays empty however big the table
+        try (Stream<PersonVO> people = repository.streamAll()) {
+            people.forEach(action);
+        }
+    }
 
-        var entity = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("No records found for this ID!"));
+    //Like forEach, but never from a replica: for copies of the table kept up to date from PersonChangedEvents,
+    //which a replica behind the primary would take back to changes they have already applied
+    @Transactional
+    public void forEachFromPrimary(Consumer<PersonVO> action) {
+        logger.fine("Streaming all people from the primary!");
 
-        repository.delete(entity);
+        try (Stream<PersonVO> people = repository.streamAll()) {
+            people.forEach(action);
+        }
+    }
+
+    //Every row from a forward-only cursor straight into out; with useCursorFetch (see the MySQL url)
+    //the server sends EXPORT_FETCH_SIZE rows at a time, so memory stays flat however big the table
+    @Transactional(readOnly = true)
+    public void export(PersonExportFormat format, OutputStream out) throws IOException {
+        logger.fine("Exporting all people!");
+
+        PersonExportWriter writer = PersonExportWriter.of(format, out);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(PersonExportWriter.SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, writer);
+        writer.finish();
+    }
+
+    /**
+     * Updates the person, only if it is still at {@code expectedVersion} when that is given.
+     * Without it the version written is read back before the change is published, so the change log,
+     * the stream and the response all carry it.
+     */
+    @Transactional
+    public Optional<Person> update(Person person, Long expectedVersion) {
+        logger.fine("Updating one person!");
+
+        if (repository.updatePerson(person, expectedVersion) == 0) {
+            if (expectedVersion != null && repository.existsById(person.getId())) {
+                throw new PreconditionFailedException("Person was modified, it is no longer at version " + expectedVersion);
+            }
+            countNotFound("update");
+            return Optional.empty();
+        }
+        person.setVersion(expectedVersion == null ? repository.findVersionById(person.getId()) : expectedVersion + 1);
+        eventPublisher.publishEvent(PersonChangedEvent.saved(person));
+        return Optional.of(person);
+    }
 
+    @Transactional
+    public void delete(Long id) {
+        logger.fine("Deleting one person!");
+
+        if (repository.deletePersonById(id) == 0) {
+            throw notFound("delete", "No records found for this ID!");
+        }
+        eventPublisher.publishEvent(PersonChangedEvent.deleted(id));
     }
 
+    //Not put in the cache: it holds PersonVO, and the first findById loads it.
+    //Transactional so the person_change row of PersonChangeLog commits with the person
+    @Transactional
     public Person create(Person person) {
-        logger.info("Creating one person!");
+        logger.fine("Creating one person!");
 
-        Optional<Person>savedPerson = repository.findByEmail(person.getEmail());
+        // The unique index on email is the uniqueness check: one round trip and safe under concurrency
+        Person saved;
+        try {
+            saved = repository.saveAndFlush(person);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
+                throw notFound("create", "Person already exist with give e-mail: " + person.getEmail());
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(PersonChangedEvent.saved(saved));
+        return saved;
+    }
 
-        if (savedPerson.isPresent()) {
-            throw new ResourceNotFoundException("Person already exist with give e-mail: " + person.getEmail());
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    @Transactional
+    public List<BatchItemResultVO> createAll(List<Person> people) {
+        logger.fine("Creating a batch of people!");
+
+        List<BatchItemResultVO> results = new ArrayList<>(people.size());
+        for (int start = 0; start < people.size(); start += BATCH_CHUNK_SIZE) {
+            int end = Math.min(start + BATCH_CHUNK_SIZE, people.size());
+            results.addAll(createChunk(people.subList(start, end), start));
+            // Send the JDBC batch and drop the chunk from the persistence context
+            entityManager.flush();
+            entityManager.clear();
         }
+        return results;
+    }
 
-        return repository.save(person);
+    //E-mails are compared lower-cased: uk_person_email has MySQL's case-insensitive collation, so Ana@x and ana@x
+    //are the same person. They are also looked up as given, for databases that compare them as they are
+    private List<BatchItemResultVO> createChunk(List<Person> chunk, int offset) {
+        Set<String> emails = new HashSet<>();
+        for (Person person : chunk) {
+            if (person.getEmail() != null) {
+                emails.add(person.getEmail());
+                emails.add(person.getEmail().toLowerCase(Locale.ROOT));
+            }
+        }
+        Set<String> taken = new HashSet<>();
+        for (String email : repository.findExistingEmails(emails)) {
+            taken.add(email.toLowerCase(Locale.ROOT));
+        }
+
+        String[] errors = new String[chunk.size()];
+        List<Person> toSave = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Person person = chunk.get(i);
+            errors[i] = validate(person);
+            if (errors[i] == null && !taken.add(person.getEmail().toLowerCase(Locale.ROOT))) {
+                errors[i] = "Person already exist with give e-mail: " + person.getEmail();
+            }
+            if (errors[i] == null) {
+                person.setId(null);
+                toSave.add(person);
+            }
+        }
+        repository.saveAll(toSave);
+
+        List<BatchItemResultVO> results = new ArrayList<>(chunk.size());
+        for (Person person : toSave) {
+            eventPublisher.publishEvent(PersonChangedEvent.saved(person));
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            Person person = chunk.get(i);
+            results.add(errors[i] == null
+                    ? BatchItemResultVO.created(offset + i, person.getId(), person.getEmail())
+                    : BatchItemResultVO.failed(offset + i, person.getEmail(), errors[i]));
+        }
+        return results;
     }
 
+    private String validate(Person person) {
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) return null;
+
+        ConstraintViolation<Person> violation = violations.iterator().next();
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
 
-    public Person findById(Long id) {
-        logger.info("Finding one person!");
+    //Read through the people cache by PersonReadCache, which also evicts after update and delete.
+    //Not read-only: what it reads is cached, and a replica still behind the write that evicted the
+    //person would put the old row back for the whole TTL
+    @Transactional
+    public Optional<PersonVO> findById(Long id) {
+        logger.fine("Finding one person!");
+
+        Optional<PersonVO> person = repository.findPersonVOById(id);
+        if (person.isEmpty()) {
+            countNotFound("findById");
+        }
+        return person;
+    }
+
+    //Not read-only: used to tell whether a write just committed, which a lagging replica may not have yet
+    @Transactional
+    public Optional<Person> findByEmail(String email) {
+        logger.fine("Finding one person by e-mail!");
+
+        return repository.findByEmail(email);
+    }
+
+    private ResourceNotFoundException notFound(String method, String message) {
+        countNotFound(method);
+        return new ResourceNotFoundException(message);
+    }
 
-        return repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("No records found for this ID!"));
+    private void countNotFound(String method) {
+        meterRegistry.counter("person.not.found", "method", method).increment();
     }
 
 
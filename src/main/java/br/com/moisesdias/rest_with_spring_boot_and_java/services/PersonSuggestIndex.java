@@ -0,0 +1,173 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSuggestionVO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over the words of first name, last name and e-mail: a sorted map from each normalized
+ * term (lower case, no accents) to the ids holding it, so a prefix lookup is a range scan of the map.
+ * Reads take no lock; writes are serialized and become visible term by term.
+ */
+public class PersonSuggestIndex {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    //Queries keep their punctuation, "m.dias" is a prefix of the whole e-mail term
+    private static final Pattern QUERY_SEPARATORS = Pattern.compile("[\\s,;]+");
+
+    private final ConcurrentSkipListMap<String, Set<Long>> terms = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Entry> people = new ConcurrentHashMap<>();
+
+    //Terms kept next to the person, so multi-word queries check candidates without re-tokenizing them
+    private record Entry(PersonSuggestionVO person, Set<String> terms) {
+    }
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public int size() {
+        return people.size();
+    }
+
+    public PersonSuggestionVO get(Long id) {
+        Entry entry = people.get(id);
+        return entry == null ? null : entry.person();
+    }
+
+    public Collection<Long> ids() {
+        return people.keySet();
+    }
+
+    public void put(PersonSuggestionVO person) {
+        writeLock.lock();
+        try {
+            Set<String> newTerms = termsOf(person);
+            Entry previous = people.put(person.getId(), new Entry(person, newTerms));
+            Set<String> oldTerms = previous == null ? Set.of() : previous.terms();
+            for (String term : oldTerms) {
+                if (!newTerms.contains(term)) unlink(term, person.getId());
+            }
+            for (String term : newTerms) {
+                if (!oldTerms.contains(term)) {
+                    terms.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(person.getId());
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            Entry previous = people.remove(id);
+            if (previous != null) {
+                for (String term : previous.terms()) unlink(term, id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unlink(String term, Long id) {
+        terms.computeIfPresent(term, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * People having, for every word of the query, a term starting with it; in term order, at most {@code limit}.
+     */
+    public List<PersonSuggestionVO> suggest(String query, int limit) {
+        List<String> words = split(query, QUERY_SEPARATORS);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Scan the range of the most selective word and check the others per candidate
+        String scanned = words.size() == 1 ? words.get(0) : narrowest(words);
+
+        List<PersonSuggestionVO> result = new ArrayList<>(Math.min(limit, 16));
+        Set<Long> seen = new HashSet<>();
+        for (Set<Long> ids : range(scanned).values()) {
+            for (Long id : ids) {
+                if (!seen.add(id)) continue;
+                Entry entry = people.get(id);
+                if (entry != null && (words.size() == 1 || matchesAll(entry.terms(), words))) {
+                    result.add(entry.person());
+                    if (result.size() == limit) return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Set<Long>> range(String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    //The word with the fewest terms under it, found by walking all ranges in step until one runs out
+    private String narrowest(List<String> words) {
+        List<Iterator<String>> ranges = new ArrayList<>(words.size());
+        for (String word : words) {
+            ranges.add(range(word).keySet().iterator());
+        }
+        while (true) {
+            for (int i = 0; i < words.size(); i++) {
+                if (!ranges.get(i).hasNext()) return words.get(i);
+                ranges.get(i).next();
+            }
+        }
+    }
+
+    private static boolean matchesAll(Set<String> personTerms, List<String> words) {
+        for (String word : words) {
+            boolean found = false;
+            for (String term : personTerms) {
+                if (term.startsWith(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    //Each word of the names, each word of the e-mail and the whole e-mail, so "m.dias" also matches
+    static Set<String> termsOf(PersonSuggestionVO person) {
+        Set<String> result = new LinkedHashSet<>();
+        result.addAll(split(person.getFirstName(), WORD_SEPARATORS));
+        result.addAll(split(person.getLastName(), WORD_SEPARATORS));
+        result.addAll(split(person.getEmail(), WORD_SEPARATORS));
+        if (person.getEmail() != null && !person.getEmail().isBlank()) {
+            result.add(normalize(person.getEmail()));
+        }
+        return result;
+    }
+
+    private static List<String> split(String text, Pattern separators) {
+        if (text == null) return List.of();
+        List<String> result = new ArrayList<>();
+        for (String word : separators.split(normalize(text))) {
+            if (!word.isEmpty()) result.add(word);
+        }
+        return result;
+    }
+
+    static String normalize(String text) {
+        return ACCENTS.matcher(Normalizer.normalize(text.strip(), Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+    }
+}
@@ -0,0 +1,158 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSuggestionVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Serves type-ahead from a {@link PersonSuggestIndex} built at startup and kept up to date from
+ * {@link PersonChangedEvent}s once their transaction commits.
+ */
+@Service
+@Profile("!reactive") // Loads the table through PersonServices
+public class PersonSuggestServices {
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private Logger logger = Logger.getLogger(PersonSuggestServices.class.getName());
+
+    @Autowired
+    PersonServices services;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private volatile PersonSuggestIndex index = new PersonSuggestIndex();
+
+    // Guards the index swap; while a rebuild runs, changes are also queued to be replayed onto the new index
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<PersonChangedEvent> changesDuringRebuild;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("person.suggest.index.size", this, suggest -> suggest.index.size())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    public List<PersonSuggestionVO> suggest(String query, int limit) {
+        return index.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    //Create outside a transaction has no commit to wait for, hence the fallback
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+        lock.lock();
+        try {
+            apply(index, event);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void apply(PersonSuggestIndex index, PersonChangedEvent event) {
+        if (event.isDeleted()) {
+            index.remove(event.id());
+        } else {
+            index.put(PersonSuggestionVO.of(PersonVO.of(event.person())));
+        }
+    }
+
+    /**
+     * Reloads the whole table into a new index and swaps it in; lookups keep using the old one meanwhile.
+     * Returns the number of people indexed.
+     */
+    public int rebuild() {
+        lock.lock();
+        try {
+            if (changesDuringRebuild != null) {
+                throw new IllegalStateException("A rebuild of the suggest index is already running");
+            }
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        PersonSuggestIndex fresh = new PersonSuggestIndex();
+        try {
+            services.forEachFromPrimary(person -> fresh.put(PersonSuggestionVO.of(person)));
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            // Replaying is idempotent: each change carries the final state of its person
+            for (PersonChangedEvent change : changesDuringRebuild) {
+                apply(fresh, change);
+            }
+            changesDuringRebuild = null;
+            index = fresh;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Suggest index rebuilt with " + fresh.size() + " people");
+        return fresh.size();
+    }
+
+    /**
+     * Compares the index with the table: people missing from the index, indexed with stale names,
+     * or indexed but no longer in the table.
+     */
+    public Map<String, Object> check() {
+        PersonSuggestIndex current = index;
+        Set<Long> found = new HashSet<>();
+        long[] counts = new long[3];
+        services.forEachFromPrimary(person -> {
+            found.add(person.getId());
+            PersonSuggestionVO indexed = current.get(person.getId());
+            if (indexed == null) {
+                counts[1]++;
+            } else if (!Objects.equals(indexed, PersonSuggestionVO.of(person))) {
+                counts[2]++;
+            }
+            counts[0]++;
+        });
+        long extra = current.ids().stream().filter(id -> !found.contains(id)).count();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("database", counts[0]);
+        report.put("indexed", current.size());
+        report.put("missing", counts[1]);
+        report.put("stale", counts[2]);
+        report.put("extra", extra);
+        report.put("consistent", counts[1] == 0 && counts[2] == 0 && extra == 0);
+        return report;
+    }
+}
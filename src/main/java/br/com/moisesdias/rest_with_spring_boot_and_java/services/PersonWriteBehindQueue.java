@@ -0,0 +1,425 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonWriteStatusVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ServiceUnavailableException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous creates: {@link #accept} appends the person to a local journal, fsyncs it and queues
+ * it; a single worker hands the queue to {@link PersonServices#createAll} in batches of batch-size,
+ * or whatever arrived within max-delay of the first one, so the e-mail check and the inserts run
+ * once per batch. Outcomes are journaled too, and on startup every accepted write without an outcome
+ * is queued again. Delivery is at least once: a crash between the commit and the outcome replays the
+ * write, which the unique e-mail then rejects; a replayed write whose e-mail is taken by the very person
+ * it journaled is reported as created.
+ * Stops after the web server, so the creates it accepts while draining are still journaled.
+ */
+@Component
+@Profile("!reactive") // JPA is not available on the reactive stack
+@ConditionalOnProperty(prefix = "person.write-behind", name = "enabled")
+public class PersonWriteBehindQueue implements SmartLifecycle {
+
+    private static final String ACCEPTED = "accepted";
+    private static final String DONE = "done";
+
+    private Logger logger = Logger.getLogger(PersonWriteBehindQueue.class.getName());
+
+    //One line of the journal; person is only set on accepted entries
+    record JournalEntry(String type, String trackingId, Person person) {
+    }
+
+    //Replayed when it comes from the journal of a previous run, which may have committed it already
+    private record Pending(String trackingId, Person person, boolean replayed) {
+    }
+
+    private final PersonServices services;
+    private final ObjectMapper mapper;
+    private final Path journal;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final DataSize compactThreshold;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // Taken before a write is journaled and given back once its outcome is, so the journal never
+    // holds more pending writes than the queue can take
+    private final Semaphore slots;
+    private final Cache<String, PersonWriteStatusVO> statuses;
+
+    private final FileChannel channel;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // Appends so far and appends known to be on disk: one fsync covers every append before it
+    private volatile long written;
+    private long synced;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PersonWriteBehindQueue(PersonServices services, ObjectMapper mapper,
+                                  @Value("${person.write-behind.journal:data/person-writes.ndjson}") Path journal,
+                                  @Value("${person.write-behind.capacity:10000}") int capacity,
+                                  @Value("${person.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${person.write-behind.max-delay:200ms}") Duration maxDelay,
+                                  @Value("${person.write-behind.status-retention:1h}") Duration statusRetention,
+                                  @Value("${person.write-behind.compact-threshold:16MB}") DataSize compactThreshold,
+                                  @Value("${person.write-behind.retry-after:1s}") Duration retryAfter,
+                                  MeterRegistry meterRegistry) throws IOException {
+        this.services = services;
+        this.mapper = mapper;
+        this.journal = journal;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.compactThreshold = compactThreshold;
+        this.retryAfter = retryAfter;
+        this.meterRegistry = meterRegistry;
+        this.statuses = Caffeine.newBuilder().expireAfter(untilRetentionOnceDone(statusRetention)).build();
+
+        List<Pending> recovered = recover();
+        this.slots = new Semaphore(capacity - recovered.size());
+        this.channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        for (Pending pending : recovered) {
+            statuses.put(pending.trackingId(), PersonWriteStatusVO.queued(pending.trackingId(), pending.person().getEmail()));
+            queue.add(pending);
+        }
+        meterRegistry.gauge("person.write-behind.queued", queue, BlockingQueue::size);
+    }
+
+    /**
+     * Queues the person once it is on disk; its outcome is then reported by {@link #findStatus}.
+     */
+    public PersonWriteStatusVO accept(Person person) {
+        if (!slots.tryAcquire()) {
+            meterRegistry.counter("person.write-behind.rejected").increment();
+            throw new ServiceUnavailableException("The write queue is full, try again later", retryAfter);
+        }
+        String trackingId = UUID.randomUUID().toString();
+        try {
+            append(List.of(new JournalEntry(ACCEPTED, trackingId, person)));
+        } catch (IOException e) {
+            slots.release();
+            throw new UncheckedIOException(e);
+        }
+        PersonWriteStatusVO status = PersonWriteStatusVO.queued(trackingId, person.getEmail());
+        statuses.put(trackingId, status);
+        queue.add(new Pending(trackingId, person, false));
+        return status;
+    }
+
+    public Optional<PersonWriteStatusVO> findStatus(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    // A queued status stays until its write has an outcome, however long the queue takes; the outcome
+    // is kept for the retention from the moment it is known
+    private static Expiry<String, PersonWriteStatusVO> untilRetentionOnceDone(Duration retention) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String trackingId, PersonWriteStatusVO status, long currentTime) {
+                return status.getStatus() == PersonWriteStatusVO.Status.QUEUED ? Long.MAX_VALUE : retention.toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(String trackingId, PersonWriteStatusVO status, long currentTime, long currentDuration) {
+                return expireAfterCreate(trackingId, status, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String trackingId, PersonWriteStatusVO status, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    // Accepted writes without an outcome, in journal order; the journal is rewritten with just those
+    private List<Pending> recover() throws IOException {
+        if (journal.getParent() != null) {
+            Files.createDirectories(journal.getParent());
+        }
+        if (!Files.exists(journal)) {
+            return List.of();
+        }
+        Map<String, Person> pending = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JournalEntry entry;
+                try {
+                    entry = mapper.readValue(line, JournalEntry.class);
+                } catch (JsonProcessingException e) {
+                    // A line cut short by a crash; its write was never acknowledged
+                    logger.warning("Skipping an unreadable journal line: " + e.getOriginalMessage());
+                    continue;
+                }
+                if (ACCEPTED.equals(entry.type())) {
+                    pending.put(entry.trackingId(), entry.person());
+                } else {
+                    pending.remove(entry.trackingId());
+                }
+            }
+        }
+        List<Pending> recovered = new ArrayList<>(pending.size());
+        pending.forEach((trackingId, person) -> recovered.add(new Pending(trackingId, person, true)));
+
+        Path compacted = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Pending write : recovered) {
+                out.write(ByteBuffer.wrap(line(new JournalEntry(ACCEPTED, write.trackingId(), write.person()))));
+            }
+            out.force(true);
+        }
+        Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (!recovered.isEmpty()) {
+            logger.info("Recovered " + recovered.size() + " queued writes from " + journal);
+        }
+        return recovered;
+    }
+
+    private byte[] line(JournalEntry entry) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(entry);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    //Group commit: writers that append while an fsync runs share the next one
+    private void append(List<JournalEntry> entries) throws IOException {
+        ByteBuffer[] lines = new ByteBuffer[entries.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = ByteBuffer.wrap(line(entries.get(i)));
+        }
+        long mine;
+        writeLock.lock();
+        try {
+            channel.write(lines);
+            mine = ++written;
+        } finally {
+            writeLock.unlock();
+        }
+        syncLock.lock();
+        try {
+            if (synced < mine) {
+                long target = written;
+                channel.force(false);
+                synced = target;
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                Pending first = queue.poll(maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    compactIfIdle();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || left <= 0) break;
+                    Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Whatever is still queued is in the journal and is replayed on the next start
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        List<BatchItemResultVO> results = new ArrayList<>(create(batch));
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).replayed() && results.get(i).getStatus() == BatchItemResultVO.Status.FAILED) {
+                results.set(i, alreadyCreated(batch.get(i).person(), results.get(i)));
+            }
+        }
+        List<JournalEntry> done = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            done.add(new JournalEntry(DONE, pending.trackingId(), null));
+        }
+        try {
+            append(done);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not journal the outcome of " + batch.size() + " writes, they will be replayed", e);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PersonWriteStatusVO status = PersonWriteStatusVO.of(batch.get(i).trackingId(), results.get(i));
+            statuses.put(status.getTrackingId(), status);
+            meterRegistry.counter("person.write-behind.writes", "status", status.getStatus().name()).increment();
+        }
+        slots.release(batch.size());
+    }
+
+    // Transient failures (database down, pool saturated) are retried until they pass; anything else is
+    // retried one write at a time, so only the writes that cannot be created are given up on
+    private List<BatchItemResultVO> create(List<Pending> batch) throws InterruptedException {
+        List<Person> people = batch.stream().map(Pending::person).toList();
+        for (long backoff = 100; ; backoff = Math.min(backoff * 2, 10_000)) {
+            try {
+                return services.createAll(people);
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    logger.log(Level.WARNING, "Batch of " + batch.size() + " writes failed, creating them one by one", e);
+                    break;
+                }
+                logger.warning("Batch of " + batch.size() + " writes failed, retrying in " + backoff + " ms: " + e.getMessage());
+                Thread.sleep(backoff);
+            }
+        }
+        List<BatchItemResultVO> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < people.size(); i++) {
+            Person person = people.get(i);
+            try {
+                BatchItemResultVO result = services.createAll(List.of(person)).get(0);
+                result.setIndex(i);
+                results.add(result);
+            } catch (RuntimeException e) {
+                results.add(BatchItemResultVO.failed(i, person.getEmail(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    // The previous run crashed between the commit and journaling the outcome: the person is there as journaled
+    private BatchItemResultVO alreadyCreated(Person person, BatchItemResultVO failed) {
+        if (person.getEmail() == null) return failed;
+        try {
+            return services.findByEmail(person.getEmail())
+                    .filter(stored -> sameAs(stored, person))
+                    .map(stored -> BatchItemResultVO.created(failed.getIndex(), stored.getId(), person.getEmail()))
+                    .orElse(failed);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not check whether " + person.getEmail() + " was already created", e);
+            return failed;
+        }
+    }
+
+    //Id and version are given by the database, so only what was submitted is compared
+    private static boolean sameAs(Person stored, Person person) {
+        return Objects.equals(stored.getFirstName(), person.getFirstName())
+                && Objects.equals(stored.getLastName(), person.getLastName())
+                && Objects.equals(stored.getAddress(), person.getAddress())
+                && Objects.equals(stored.getGender(), person.getGender())
+                && Objects.equals(stored.getEmail(), person.getEmail());
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException
+                || e instanceof ServiceUnavailableException;
+    }
+
+    // Nothing is queued, in flight or being accepted: every line of the journal has its outcome
+    private void compactIfIdle() {
+        writeLock.lock();
+        try {
+            if (slots.availablePermits() == capacity && channel.size() > compactThreshold.toBytes()) {
+                channel.truncate(0);
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not compact " + journal, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "person-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    //The batch being written is finished; the rest of the queue stays in the journal
+    @Override
+    public void stop() {
+        running = false;
+        if (worker == null) return;
+        try {
+            worker.join(maxDelay.toMillis() + 30_000);
+            // Still retrying against a database that is down
+            worker.interrupt();
+            worker.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close " + journal, e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    //Below the web server's graceful shutdown and its stop, which come down first
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a search page: the sort it was taken with, the sort key and the id.
+ * Sent to clients as URL-safe base64 so they treat it as opaque.
+ */
+record SearchCursor(String sort, String direction, String value, long id) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    String encode() {
+        String raw = sort + SEPARATOR + direction + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The value is user data, so it is whatever lies between the second and the last separator
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || second < 0 || last <= second) {
+                throw new BadRequestException("Invalid search cursor");
+            }
+            return new SearchCursor(raw.substring(0, first), raw.substring(first + 1, second),
+                    raw.substring(second + 1, last), Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid search cursor");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Baseline schema. IF NOT EXISTS lets databases previously managed by
+-- ddl-auto: update adopt the migrations without losing data.
+CREATE TABLE IF NOT EXISTS person (
+    id BIGINT NOT NULL,
+    first_name VARCHAR(80) NOT NULL,
+    last_name VARCHAR(80) NOT NULL,
+    address VARCHAR(100) NOT NULL,
+    gender VARCHAR(9) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    gen_name VARCHAR(255) NOT NULL,
+    gen_value BIGINT,
+    PRIMARY KEY (gen_name)
+);
+
+-- gen_value is the highest id already handed out; the next block starts right above it
+INSERT INTO id_generator (gen_name, gen_value)
+SELECT 'person', 0 FROM (SELECT 1 AS seed) s
+WHERE NOT EXISTS (SELECT 1 FROM id_generator WHERE gen_name = 'person');
+
+UPDATE id_generator
+SET gen_value = (SELECT COALESCE(MAX(id), 0) FROM person)
+WHERE gen_name = 'person'
+  AND gen_value < (SELECT COALESCE(MAX(id), 0) FROM person);
@@ -0,0 +1,5 @@
+-- Backs the e-mail uniqueness rule enforced on insert and the findByEmail lookup
+CREATE UNIQUE INDEX uk_person_email ON person (email);
+
+-- Backs findByJPQL / findByNativeSQL and their named-parameter variants
+CREATE INDEX idx_person_first_name_last_name ON person (first_name, last_name);
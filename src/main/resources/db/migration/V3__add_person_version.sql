@@ -0,0 +1,2 @@
+-- Optimistic-locking version, incremented by every update; backs the ETag of /person/{id}
+ALTER TABLE person ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
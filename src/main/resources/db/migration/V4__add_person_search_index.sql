@@ -0,0 +1,3 @@
+-- Backs /person/search filtered on or sorted by last name; id is the keyset tie-breaker.
+-- First name searches use idx_person_first_name_last_name, e-mail searches uk_person_email
+CREATE INDEX idx_person_last_name_id ON person (last_name, id);
@@ -0,0 +1,14 @@
+-- Change log of person, appended in the writing transaction by PersonChangeLog and streamed by
+-- GET /person/changes; seq is the event id consumers resume after
+CREATE TABLE IF NOT EXISTS person_change (
+    seq BIGINT NOT NULL AUTO_INCREMENT,
+    person_id BIGINT NOT NULL,
+    type VARCHAR(7) NOT NULL,
+    -- PersonVO as JSON, null for deletes
+    payload TEXT,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (seq)
+);
+
+-- Retention deletes the changes older than person.changes.retention
+CREATE INDEX idx_person_change_changed_at ON person_change (changed_at);
@@ -0,0 +1,9 @@
+-- A single row counting the transactions that wrote to person, bumped by each of them before it commits
+-- (PersonChangeLog, PersonReactiveRepository); GET /person uses it as the ETag of the whole table
+CREATE TABLE IF NOT EXISTS person_table_version (
+    id TINYINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO person_table_version (id, version) VALUES (1, 0);
@@ -0,0 +1,3 @@
+-- Backs /person/search filtered on or sorted by first name; id is the keyset tie-breaker, which
+-- idx_person_first_name_last_name cannot order by
+CREATE INDEX idx_person_first_name_id ON person (first_name, id);
@@ -1,32 +1,64 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.controllers;
 
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangeVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangesPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchCriteriaVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSuggestionVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceGoneException;
 import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
 import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.CompressedPersonListCache;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonChangeStream;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonExportFormat;
 import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonSuggestServices;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.CoreMatchers.nullValue;
 
 
 @WebMvcTest
+@Import(CompressedPersonListCache.class)
 public class PersonControllerTest {
 
     @Autowired
@@ -37,6 +69,12 @@ public class PersonControllerTest {
     @MockBean
     private PersonServices service;
 
+    @MockBean
+    private PersonSuggestServices suggestServices;
+
+    @MockBean
+    private PersonChangeStream changeStream;
+
     private Person person;
 
     @BeforeEach
@@ -63,7 +101,9 @@ public class PersonControllerTest {
                 "beatriste@gmail.com"));
 
 
-        given(service.findAll()).willReturn(personsList);
+        given(service.findSyncToken()).willReturn("42");
+        given(service.findTableVersion()).willReturn("7");
+        given(service.findAll()).willReturn(personsList.stream().map(PersonVO::of).toList());
 
         // When / Act
         ResultActions response = mockMvc.perform(get("/person"));
@@ -71,21 +111,134 @@ public class PersonControllerTest {
         // Then / Assert
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"7-json\""))
+                .andExpect(header().string(PersonController.SYNC_TOKEN_HEADER, "42"))
                 .andExpect(jsonPath("$.size()", is(personsList.size())));
     }
 
+    @Test
+    @DisplayName("JUnit test for Given Current Table ETag when FindAll then Return Not Modified Without Loading People")
+    void testGivenCurrentTableETag_whenFindAll_thenReturnNotModifiedWithoutLoadingPeople() throws Exception {
+
+        //Given / Arrange
+        given(service.findTableVersion()).willReturn("7");
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person").header(HttpHeaders.IF_NONE_MATCH, "W/\"7-json\""));
+
+        // Then / Assert
+        response.andExpect(status().isNotModified())
+                .andDo(print());
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Limit when FindPage then Return Page with Next Cursor")
+    void testGivenLimit_whenFindPage_thenReturnPageWithNextCursor() throws JsonProcessingException, Exception {
+
+        //Given / Arrange
+        person.setId(1L);
+        given(service.findPage(null, 1)).willReturn(new PersonPageVO(List.of(PersonVO.of(person)), 1L));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person").param("limit", "1"));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(1)))
+                .andExpect(jsonPath("$.content[0].email", is(person.getEmail())))
+                .andExpect(jsonPath("$.nextCursor", is(1)));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Cursor on Last Page when FindPage then Return Null Next Cursor")
+    void testGivenCursorOnLastPage_whenFindPage_thenReturnNullNextCursor() throws JsonProcessingException, Exception {
+
+        //Given / Arrange
+        given(service.findPage(1L, 10)).willReturn(new PersonPageVO(List.of(), null));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person")
+                .param("after", "1")
+                .param("limit", "10"));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(0)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given ChangedSince and Limit when FindAll then Return Changes Page Instead of People Page")
+    void testGivenChangedSinceAndLimit_whenFindAll_thenReturnChangesPageInsteadOfPeoplePage() throws Exception {
+
+        //Given / Arrange
+        person.setId(1L);
+        given(service.findChangesSince("42", 2)).willReturn(new PersonChangesPageVO(List.of(
+                new PersonChangeVO(43L, PersonChangeVO.Type.SAVED, 1L, PersonVO.of(person), Instant.EPOCH),
+                new PersonChangeVO(45L, PersonChangeVO.Type.DELETED, 2L, null, Instant.EPOCH)), "45", true));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person")
+                .param("changedSince", "42")
+                .param("limit", "2"));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.changes.size()", is(2)))
+                .andExpect(jsonPath("$.changes[0].person.email", is(person.getEmail())))
+                .andExpect(jsonPath("$.changes[1].type", is("DELETED")))
+                .andExpect(jsonPath("$.nextToken", is("45")))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+        verify(service, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Persons when Stream All then Return Persons Json Array")
+    void testGivenPersons_whenStreamAll_thenReturnPersonsJsonArray() throws JsonProcessingException, Exception {
+
+        //Given / Arrange
+        willAnswer(invocation -> {
+            Consumer<PersonVO> action = invocation.getArgument(0);
+            action.accept(PersonVO.of(person));
+            action.accept(PersonVO.of(new Person("Beatriz",
+                    "Dias",
+                    "Campinas - São Paulo",
+                    "Female",
+                    "beatriste@gmail.com")));
+            return null;
+        }).given(service).forEach(any());
+
+        // When / Act
+        MvcResult result = mockMvc.perform(get("/person/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].email", is("beatriste@gmail.com")));
+    }
+
     @Test
     @DisplayName("JUnit test for Given personId when FindById then Return Person Object")
     void testGivenPersonId_whenFindById_thenReturnPersonObject() throws JsonProcessingException, Exception  {
         //Given / Arrange
         long personId = 1L;
-        given(service.findById(personId)).willReturn(person);
+        person.setVersion(3L);
+        given(service.findById(personId)).willReturn(Optional.of(PersonVO.of(person)));
 
         // When / Act
         ResultActions response = mockMvc.perform(get("/person/{id}", personId));
         // Then / Assert
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-json\""))
                 .andExpect(jsonPath("$.firstName", is(person.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(person.getLastName())))
                 .andExpect(jsonPath("$.email", is(person.getEmail())));
@@ -96,7 +249,7 @@ public class PersonControllerTest {
     void testGivenInvalidPersonId_whenFindById_thenReturnNotFound() throws JsonProcessingException, Exception  {
         //Given / Arrange
         long personId = 1L;
-        given(service.findById(personId)).willThrow(ResourceNotFoundException.class);
+        given(service.findById(personId)).willReturn(Optional.empty());
 
         // When / Act
         ResultActions response = mockMvc.perform(get("/person/{id}", personId));
@@ -123,13 +276,90 @@ public class PersonControllerTest {
                 .andExpect(jsonPath("$.email", is(person.getEmail())));
     }
 
+    @Test
+    @DisplayName("JUnit test for Given Person List when Create Batch then Return Item Results")
+    void testGivenPersonList_whenCreateBatch_thenReturnItemResults() throws JsonProcessingException, Exception  {
+        //Given / Arrange
+        given(service.createAll(anyList())).willAnswer(invocation -> {
+            List<Person> people = invocation.getArgument(0);
+            return List.of(BatchItemResultVO.created(0, 1L, people.get(0).getEmail()),
+                    BatchItemResultVO.failed(1, people.get(1).getEmail(), "Person already exist with give e-mail"));
+        });
+
+        // When / Act
+        ResultActions response = mockMvc.perform(post("/person/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(person, person))));
+        // Then / Assert
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("FAILED")));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given NDJSON Stream when Create Batch then Return Item Results")
+    void testGivenNdjsonStream_whenCreateBatch_thenReturnItemResults() throws JsonProcessingException, Exception  {
+        //Given / Arrange
+        given(service.createAll(anyList())).willAnswer(invocation -> {
+            List<Person> people = invocation.getArgument(0);
+            List<BatchItemResultVO> results = new ArrayList<>();
+            for (int i = 0; i < people.size(); i++) {
+                results.add(BatchItemResultVO.created(i, i + 1L, people.get(i).getEmail()));
+            }
+            return results;
+        });
+
+        // When / Act
+        String body = mapper.writeValueAsString(person) + "\n" + mapper.writeValueAsString(person) + "\n";
+        ResultActions response = mockMvc.perform(post("/person/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body));
+        // Then / Assert
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].id", is(2)));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given NDJSON Stream Over A Chunk when Create Batch then Create Chunk By Chunk")
+    void testGivenNdjsonStreamOverAChunk_whenCreateBatch_thenCreateChunkByChunk() throws Exception {
+        //Given / Arrange
+        List<Integer> chunkSizes = new ArrayList<>();
+        given(service.createAll(anyList())).willAnswer(invocation -> {
+            List<Person> people = invocation.getArgument(0);
+            chunkSizes.add(people.size());
+            List<BatchItemResultVO> results = new ArrayList<>();
+            for (int i = 0; i < people.size(); i++) {
+                results.add(BatchItemResultVO.created(i, i + 1L, people.get(i).getEmail()));
+            }
+            return results;
+        });
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < PersonServices.BATCH_CHUNK_SIZE + 2; i++) {
+            body.append(mapper.writeValueAsString(person)).append('\n');
+        }
+
+        // When / Act
+        ResultActions response = mockMvc.perform(post("/person/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body.toString()));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(PersonServices.BATCH_CHUNK_SIZE + 2)))
+                .andExpect(jsonPath("$[" + (PersonServices.BATCH_CHUNK_SIZE + 1) + "].index", is(PersonServices.BATCH_CHUNK_SIZE + 1)));
+        assertEquals(List.of(PersonServices.BATCH_CHUNK_SIZE, 2), chunkSizes);
+    }
+
     @Test
     @DisplayName("JUnit test for Given Person when Update then Return Person Object")
     void testGivenPerson_whenUpdate_thenReturnPersonObject() throws JsonProcessingException, Exception  {
         //Given / Arrange
         long personId = 1L;
-        given(service.findById(personId)).willReturn(person);
-        given(service.update(any(Person.class))).willAnswer((invocation) -> invocation.getArgument(0));
+        given(service.update(any(Person.class), isNull())).willAnswer((invocation) -> Optional.of(invocation.getArgument(0)));
 
         // When / Act
         Person updatedPerson = new Person("Beatriz",
@@ -154,8 +384,7 @@ public class PersonControllerTest {
     void testGivenUnexistentPerson_whenUpdate_thenReturnNotFound() throws JsonProcessingException, Exception  {
         //Given / Arrange
         long personId = 1L;
-        given(service.findById(personId)).willThrow(ResourceNotFoundException.class);;
-        given(service.update(any(Person.class))).willAnswer((invocation) -> invocation.getArgument(1));
+        given(service.update(any(Person.class), isNull())).willReturn(Optional.empty());
 
         // When / Act
         Person updatedPerson = new Person("Beatriz",
@@ -187,4 +416,295 @@ public class PersonControllerTest {
         response.andExpect(status().isNoContent())
                 .andDo(print());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("JUnit test for Given Unexistent PersonId when Delete then Return Problem Detail")
+    void testGivenUnexistentPersonId_whenDelete_thenReturnProblemDetail() throws JsonProcessingException, Exception  {
+        //Given / Arrange
+        long personId = 1L;
+        willThrow(new ResourceNotFoundException("No records found for this ID!")).given(service).delete(personId);
+
+        // When / Act
+        ResultActions response = mockMvc.perform(delete("/person/{id}", personId));
+
+        // Then / Assert
+        response.andExpect(status().isNotFound())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.detail", is("No records found for this ID!")))
+                .andExpect(jsonPath("$.instance", is("/person/1")))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Current ETag when FindById then Return Not Modified")
+    void testGivenCurrentETag_whenFindById_thenReturnNotModified() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        person.setVersion(3L);
+        given(service.findById(personId)).willReturn(Optional.of(PersonVO.of(person)));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-json\""));
+
+        // Then / Assert
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given JSON ETag when FindById as CBOR then Return The CBOR Body With Its Own ETag")
+    void testGivenJsonETag_whenFindByIdAsCbor_thenReturnTheCborBodyWithItsOwnETag() throws Exception {
+        //Given / Arrange
+        long personId = 1L;
+        person.setVersion(3L);
+        given(service.findById(personId)).willReturn(Optional.of(PersonVO.of(person)));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person/{id}", personId)
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-json\""));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given If-Match when Update then Return Next ETag")
+    void testGivenIfMatch_whenUpdate_thenReturnNextETag() throws Exception {
+        //Given / Arrange
+        person.setId(1L);
+        given(service.update(any(Person.class), eq(3L))).willAnswer((invocation) -> {
+            Person updated = invocation.getArgument(0);
+            updated.setVersion(4L);
+            return Optional.of(updated);
+        });
+
+        // When / Act
+        ResultActions response = mockMvc.perform(put("/person")
+                .header(HttpHeaders.IF_MATCH, "W/\"3-json\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(person)));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"4-json\""));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Stale If-Match when Update then Return Precondition Failed")
+    void testGivenStaleIfMatch_whenUpdate_thenReturnPreconditionFailed() throws Exception {
+        //Given / Arrange
+        person.setId(1L);
+        given(service.update(any(Person.class), eq(3L)))
+                .willThrow(new PreconditionFailedException("Person was modified, it is no longer at version 3"));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(put("/person")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(person)));
+
+        // Then / Assert
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print())
+                .andExpect(jsonPath("$.status", is(412)));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given CBOR Person when Create then Round Trip the Same Person as CBOR")
+    void testGivenCborPerson_whenCreate_thenRoundTripTheSamePersonAsCbor() throws Exception {
+        //Given / Arrange
+        CBORMapper cborMapper = new CBORMapper();
+        given(service.create(any(Person.class))).willAnswer((invocation) -> {
+            Person created = invocation.getArgument(0);
+            created.setId(1L);
+            created.setVersion(0L);
+            return created;
+        });
+
+        // When / Act
+        MvcResult result = mockMvc.perform(post("/person")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(person)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Then / Assert
+        Person created = cborMapper.readValue(result.getResponse().getContentAsByteArray(), Person.class);
+        person.setId(1L);
+        person.setVersion(0L);
+        assertEquals(person, created);
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Person List when FindAll as CBOR then Decode to the Same List as JSON")
+    void testGivenPersonList_whenFindAllAsCbor_thenDecodeToTheSameListAsJson() throws Exception {
+        //Given / Arrange
+        CBORMapper cborMapper = new CBORMapper();
+        person.setId(1L);
+        Person other = new Person("Beatriz", "Dias", "Campinas - São Paulo", "Female", "beatriste@gmail.com");
+        other.setId(2L);
+        given(service.findTableVersion()).willReturn("7");
+        given(service.findAll()).willReturn(List.of(PersonVO.of(person), PersonVO.of(other)));
+
+        // When / Act
+        byte[] cbor = mockMvc.perform(get("/person").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mockMvc.perform(get("/person").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then / Assert
+        assertArrayEquals(mapper.readValue(json, Person[].class), cborMapper.readValue(cbor, Person[].class));
+        assertTrue(cbor.length < json.length);
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Unchanged Table when FindAll with Gzip then Serve the Cached Compressed List")
+    void testGivenUnchangedTable_whenFindAllWithGzip_thenServeTheCachedCompressedList() throws Exception {
+        //Given / Arrange
+        person.setId(1L);
+        given(service.findTableVersion()).willReturn("3");
+        given(service.findAll()).willReturn(List.of(PersonVO.of(person)));
+
+        // When / Act
+        byte[] first = mockMvc.perform(get("/person").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-json\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] second = mockMvc.perform(get("/person").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then / Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first))) {
+            assertArrayEquals(new Person[]{person}, mapper.readValue(in, Person[].class));
+        }
+        assertArrayEquals(first, second);
+        verify(service, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Search Parameters when Search then Bind Them And Return The Page")
+    void testGivenSearchParameters_whenSearch_thenBindThemAndReturnThePage() throws Exception {
+        //Given / Arrange
+        given(service.search(any(PersonSearchCriteriaVO.class)))
+                .willReturn(new PersonSearchPageVO(List.of(PersonVO.of(person)), "next"));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person/search")
+                .param("lastName", "Di*")
+                .param("gender", "Male")
+                .param("sort", "lastName")
+                .param("limit", "1"));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email", is(person.getEmail())))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+        verify(service).search(argThat(criteria -> "Di*".equals(criteria.getLastName())
+                && "Male".equals(criteria.getGender())
+                && "lastName".equals(criteria.getSort())
+                && "asc".equals(criteria.getDirection())
+                && criteria.getLimit() == 1));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Unsupported Sort when Search then Return Bad Request Problem")
+    void testGivenUnsupportedSort_whenSearch_thenReturnBadRequestProblem() throws Exception {
+        //Given / Arrange
+        given(service.search(any(PersonSearchCriteriaVO.class)))
+                .willThrow(new BadRequestException("Unsupported sort: address"));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person/search").param("sort", "address"));
+
+        // Then / Assert
+        response.andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail", is("Unsupported sort: address")));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given CSV Format when Export then Stream An Attachment")
+    void testGivenCsvFormat_whenExport_thenStreamAnAttachment() throws Exception {
+        //Given / Arrange
+        willAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("id,firstName\r\n1,Moises\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(service).export(eq(PersonExportFormat.CSV), any(OutputStream.class));
+
+        // When / Act
+        MvcResult result = mockMvc.perform(get("/person/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"person.csv\""))
+                .andExpect(content().string("id,firstName\r\n1,Moises\r\n"));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Unsupported Format when Export then Return Bad Request Problem")
+    void testGivenUnsupportedFormat_whenExport_thenReturnBadRequestProblem() throws Exception {
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person/export").param("format", "xml"));
+
+        // Then / Assert
+        response.andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+        verify(service, never()).export(any(), any());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Pruned Last-Event-ID when Get Changes then Return Gone Problem")
+    void testGivenPrunedLastEventId_whenGetChanges_thenReturnGoneProblem() throws Exception {
+        //Given / Arrange
+        given(changeStream.subscribe("7")).willThrow(new ResourceGoneException("Changes after 7 are no longer retained"));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "7"));
+
+        // Then / Assert
+        response.andExpect(status().isGone())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail", is("Changes after 7 are no longer retained")));
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Query when Suggest then Return Suggestions")
+    void testGivenQuery_whenSuggest_thenReturnSuggestions() throws Exception {
+        //Given / Arrange
+        given(suggestServices.suggest("moi", 5))
+                .willReturn(List.of(new PersonSuggestionVO(1L, "Moises", "Dias", "m.dias009@gmail.com")));
+
+        // When / Act
+        ResultActions response = mockMvc.perform(get("/person/suggest").param("q", "moi").param("limit", "5"));
+
+        // Then / Assert
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Moises")));
+    }
+}
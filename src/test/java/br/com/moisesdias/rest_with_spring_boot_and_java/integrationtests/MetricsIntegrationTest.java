@@ -0,0 +1,46 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+@AutoConfigureObservability
+//Random port: this context differs from the other integration tests and stays cached, it must not hold theirs
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricsIntegrationTest extends AbstractIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PersonServices services;
+
+    @Test
+    @DisplayName("JUnit test for Should Expose Service Timers and Pool Metrics to Prometheus")
+    void testShouldExposeServiceTimersAndPoolMetricsToPrometheus() {
+
+        services.findAll();
+
+        var content = given()
+                .basePath("/actuator/prometheus")
+                .port(port)
+                .when()
+                    .get()
+                .then()
+                    .statusCode(200)
+                .extract()
+                    .body()
+                        .asString();
+        assertTrue(content.contains("person_services_seconds_bucket"));
+        assertTrue(content.contains("method=\"findAll\""));
+        assertTrue(content.contains("hikaricp_connections_max"));
+    }
+
+}
@@ -0,0 +1,220 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.admission;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ServiceUnavailableException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonChangedEvent;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+//A two-connection H2 pool behind a two-call admission limit with room for one waiter, and one stream slot
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.minimum-idle=2",
+        "spring.datasource.hikari.connection-timeout=250",
+        "person.admission.max-concurrent=2",
+        "person.admission.max-streams=1",
+        "person.admission.max-queue=1",
+        "person.admission.max-wait=1s",
+        "person.admission.retry-after=2s"})
+@ActiveProfiles("h2")
+class PersonAdmissionIntegrationTest {
+
+    private static final String HOLDER_EMAIL = "@holder.com";
+
+    //Keeps the creates of holders inside PersonServices, in their transaction, until released
+    @TestConfiguration
+    static class HoldingConfig {
+
+        static volatile CountDownLatch release;
+
+        @EventListener
+        public void onPersonChanged(PersonChangedEvent event) throws InterruptedException {
+            if (!event.isDeleted() && event.person().getEmail().endsWith(HOLDER_EMAIL)) {
+                release.await();
+            }
+        }
+    }
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Future<?>> holders = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        HoldingConfig.release = release;
+        services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        release.countDown();
+        for (Future<?> holder : holders) {
+            holder.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdownNow();
+        repository.deleteAll();
+    }
+
+    //Each holder creates a person and stays inside PersonServices, on a connection, until released
+    private void saturate() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            String email = "person" + i + HOLDER_EMAIL;
+            holders.add(executor.submit(() -> services.create(new Person("Held", "Dias", "Campinas - São Paulo", "Male", email))));
+        }
+        awaitGauge("person.admission.active", 2);
+    }
+
+    //The holder streams the table and stays inside PersonServices, on a connection, until released
+    private void holdTheStream() throws InterruptedException {
+        holders.add(executor.submit(() -> services.forEach(person -> awaitRelease())));
+        awaitGauge("person.admission.streaming", 1);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitGauge(String name, double value) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get(name).gauge().value() != value) {
+            assertTrue(System.nanoTime() < deadline, name + " never reached " + value);
+            Thread.sleep(10);
+        }
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.find("person.admission.rejected").tag("reason", reason).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static long millisToReject(Supplier<?> call) {
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, call::get);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Saturated Pool when Call Services then Wait Briefly Or Fail Fast")
+    void integrationTestGivenSaturatedPool_whenCallServices_thenWaitBrieflyOrFailFast() throws Exception {
+        //Given / Arrange
+        saturate();
+        double timeoutsBefore = rejected("timeout");
+        double queueFullBefore = rejected("queue-full");
+
+        //When / Act / Then / Assert
+        // Alone in the queue: waits max-wait for a permit, then gives up
+        long waited = millisToReject(services::findAll);
+        assertTrue(waited >= 900 && waited < 3000, "waited " + waited + " ms");
+        assertEquals(timeoutsBefore + 1, rejected("timeout"));
+
+        // The queue is full: rejected without waiting at all
+        Future<?> waiter = executor.submit(() -> assertThrows(ServiceUnavailableException.class, services::findAll));
+        awaitGauge("person.admission.waiting", 1);
+        long rejectedIn = millisToReject(() -> services.findPage(null, 10));
+        assertTrue(rejectedIn < 500, "rejected in " + rejectedIn + " ms");
+        assertEquals(queueFullBefore + 1, rejected("queue-full"));
+        waiter.get(10, TimeUnit.SECONDS);
+
+        // Once the holders finish, calls are admitted again
+        release.countDown();
+        awaitGauge("person.admission.active", 0);
+        // Along with the people the holders created
+        assertEquals(3, services.findAll().size());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Saturated Pool when GET Person then 503 With Retry-After")
+    void integrationTestGivenSaturatedPool_whenGetPerson_then503WithRetryAfter() throws Exception {
+        //Given / Arrange
+        saturate();
+
+        //When / Act / Then / Assert
+        given().port(port)
+                .when().get("/person/search")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", "2")
+                .contentType("application/problem+json")
+                .body("status", equalTo(503));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Connections Held Outside Services when Call Services then 503 Not 500")
+    void integrationTestGivenConnectionsHeldOutsideServices_whenCallServices_then503Not500() throws Exception {
+        //Given / Arrange
+        double poolTimeoutsBefore = rejected("pool-timeout");
+
+        //When / Act / Then / Assert
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            long rejectedIn = millisToReject(services::findAll);
+            assertTrue(rejectedIn < 3000, "rejected in " + rejectedIn + " ms");
+        }
+        assertEquals(poolTimeoutsBefore + 1, rejected("pool-timeout"));
+        assertEquals(1, services.findAll().size());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Stream Holding Its Slot when Call Services then Admit Short Calls And Reject Another Stream")
+    void integrationTestGivenStreamHoldingItsSlot_whenCallServices_thenAdmitShortCallsAndRejectAnotherStream() throws Exception {
+        //Given / Arrange
+        holdTheStream();
+        double streamsFullBefore = rejected("streams-full");
+
+        //When / Act / Then / Assert
+        // The stream takes none of the permits of the short calls
+        assertEquals(0, meterRegistry.get("person.admission.active").gauge().value());
+        assertEquals(1, services.findAll().size());
+        given().port(port)
+                .when().get("/person/export")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", "2");
+        assertEquals(streamsFullBefore + 1, rejected("streams-full"));
+    }
+}
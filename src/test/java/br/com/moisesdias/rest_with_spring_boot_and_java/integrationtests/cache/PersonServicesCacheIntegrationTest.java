@@ -0,0 +1,106 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.cache;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.config.CacheConfig;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.AbstractIntegrationTest;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class PersonServicesCacheIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @SpyBean
+    private PersonRepository repository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Person person;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        cacheManager.getCache(CacheConfig.PEOPLE_CACHE).clear();
+        person = repository.save(new Person("Moises",
+                "Dias",
+                "Campinas - São Paulo",
+                "Male",
+                "m.dias009@gmail.com"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Cached Person when FindById Twice then Query Database Once")
+    void integrationTestGivenCachedPerson_whenFindByIdTwice_thenQueryDatabaseOnce() {
+
+        double hitsBefore = cacheGets("hit");
+
+        //When / Act
+        PersonVO first = services.findById(person.getId()).orElseThrow();
+        PersonVO second = services.findById(person.getId()).orElseThrow();
+
+        //Then / Assert
+        assertEquals(first.getEmail(), second.getEmail());
+        verify(repository, times(1)).findPersonVOById(person.getId());
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Cached Person when Update then Read Fresh Data")
+    void integrationTestGivenCachedPerson_whenUpdate_thenReadFreshData() {
+
+        services.findById(person.getId());
+
+        //When / Act
+        person.setFirstName("Beatriz");
+        services.update(person, null);
+        PersonVO found = services.findById(person.getId()).orElseThrow();
+
+        //Then / Assert
+        assertEquals("Beatriz", found.getFirstName());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Cached Person when Delete then Evict Entry")
+    void integrationTestGivenCachedPerson_whenDelete_thenEvictEntry() {
+
+        services.findById(person.getId());
+
+        //When / Act
+        services.delete(person.getId());
+
+        //Then / Assert
+        assertNull(cacheManager.getCache(CacheConfig.PEOPLE_CACHE).get(person.getId()));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", CacheConfig.PEOPLE_CACHE, "result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,268 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.changes;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangeVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//A one-change buffer per subscriber, so any burst overflows it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "person.changes.poll-interval=20ms",
+        "person.changes.buffer-size=1"})
+@ActiveProfiles("h2")
+class PersonChangeStreamIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<HttpResponse<Stream<String>>> subscriptions = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        subscriptions.forEach(subscription -> subscription.body().close());
+        repository.deleteAll();
+    }
+
+    private HttpResponse<Stream<String>> connect(Long lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/person/changes"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId.toString());
+        }
+        HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        subscriptions.add(response);
+        return response;
+    }
+
+    //The data of every event, read on a background thread
+    private BlockingQueue<PersonChangeVO> subscribe(Long lastEventId) throws Exception {
+        HttpResponse<Stream<String>> response = connect(lastEventId);
+        assertEquals(200, response.statusCode());
+        BlockingQueue<PersonChangeVO> events = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try {
+                response.body()
+                        .filter(line -> line.startsWith("data:"))
+                        .forEach(line -> events.add(read(line.substring("data:".length()))));
+            } catch (UncheckedIOException e) {
+                // Closed by tearDown
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        return events;
+    }
+
+    private PersonChangeVO read(String json) {
+        try {
+            return mapper.readValue(json, PersonChangeVO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PersonChangeVO next(BlockingQueue<PersonChangeVO> events) throws InterruptedException {
+        PersonChangeVO event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "No change event within 10 seconds");
+        return event;
+    }
+
+    private List<Long> lastSeqs(int count) {
+        List<Long> seqs = jdbcTemplate.queryForList("select seq from person_change order by seq desc limit ?", Long.class, count);
+        return seqs.stream().sorted().toList();
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Subscriber when Create Update And Delete then Stream Each Committed Change In Order")
+    void integrationTestGivenSubscriber_whenCreateUpdateAndDelete_thenStreamEachCommittedChangeInOrder() throws Exception {
+        //Given / Arrange
+        BlockingQueue<PersonChangeVO> events = subscribe(null);
+
+        //When / Act
+        Person moises = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        assertThrows(ResourceNotFoundException.class,
+                () -> services.create(new Person("Other", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com")));
+        services.update(new Person(moises.getId(), "Moises", "Nascimento", "Campinas - São Paulo", "Male", "m.dias009@gmail.com", null), 0L);
+        services.delete(moises.getId());
+
+        //Then / Assert
+        PersonChangeVO created = next(events);
+        PersonChangeVO updated = next(events);
+        PersonChangeVO deleted = next(events);
+        assertEquals(PersonChangeVO.Type.SAVED, created.getType());
+        assertEquals("Dias", created.getPerson().getLastName());
+        assertEquals(0L, created.getPerson().getVersion());
+        assertEquals(PersonChangeVO.Type.SAVED, updated.getType());
+        assertEquals("Nascimento", updated.getPerson().getLastName());
+        assertEquals(1L, updated.getPerson().getVersion());
+        assertEquals(PersonChangeVO.Type.DELETED, deleted.getType());
+        assertEquals(moises.getId(), deleted.getId());
+        assertNull(deleted.getPerson());
+        assertTrue(created.getSeq() < updated.getSeq() && updated.getSeq() < deleted.getSeq());
+        // The rolled back duplicate left nothing in the log
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Last-Event-ID when Reconnect then Resume Right After It")
+    void integrationTestGivenLastEventId_whenReconnect_thenResumeRightAfterIt() throws Exception {
+        //Given / Arrange
+        services.createAll(List.of(
+                new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"),
+                new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"),
+                new Person("Beatriz", "Souza", "São Paulo - São Paulo", "Female", "beatriz@gmail.com")));
+        List<Long> seqs = lastSeqs(3);
+
+        //When / Act
+        BlockingQueue<PersonChangeVO> events = subscribe(seqs.get(0));
+
+        //Then / Assert
+        PersonChangeVO leonardo = next(events);
+        PersonChangeVO beatriz = next(events);
+        assertEquals(seqs.get(1), leonardo.getSeq());
+        assertEquals("leonardo@gmail.com", leonardo.getPerson().getEmail());
+        assertEquals(seqs.get(2), beatriz.getSeq());
+        assertEquals("beatriz@gmail.com", beatriz.getPerson().getEmail());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Burst Over The Buffer when Stream then Serve The Rest From The Log In Order")
+    void integrationTestGivenBurstOverTheBuffer_whenStream_thenServeTheRestFromTheLogInOrder() throws Exception {
+        //Given / Arrange
+        BlockingQueue<PersonChangeVO> events = subscribe(null);
+        double overflows = meterRegistry.counter("person.changes.overflows").count();
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            people.add(new Person("First" + i, "Last" + i, "Campinas - São Paulo", "Male", "burst" + i + "@gmail.com"));
+        }
+
+        //When / Act
+        services.createAll(people);
+
+        //Then / Assert
+        long previous = 0;
+        for (int i = 0; i < 50; i++) {
+            PersonChangeVO event = next(events);
+            assertEquals("burst" + i + "@gmail.com", event.getPerson().getEmail());
+            assertTrue(event.getSeq() > previous);
+            previous = event.getSeq();
+        }
+        assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+        assertTrue(meterRegistry.counter("person.changes.overflows").count() > overflows);
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Transaction In Flight when Later Change Commits then Hold It Back Until The Gap Fills")
+    void integrationTestGivenTransactionInFlight_whenLaterChangeCommits_thenHoldItBackUntilTheGapFills() throws Exception {
+        //Given / Arrange
+        BlockingQueue<PersonChangeVO> events = subscribe(null);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            // Takes the next seq but stays invisible until the commit
+            statement.executeUpdate("insert into person_change (person_id, type) values (999, 'DELETED')");
+
+            //When / Act
+            services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+            PersonChangeVO early = events.poll(500, TimeUnit.MILLISECONDS);
+            connection.commit();
+
+            //Then / Assert
+            assertNull(early);
+        }
+        PersonChangeVO inFlight = next(events);
+        PersonChangeVO moises = next(events);
+        assertEquals(999L, inFlight.getId());
+        assertEquals("m.dias009@gmail.com", moises.getPerson().getEmail());
+        assertEquals(inFlight.getSeq() + 1, moises.getSeq());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Transaction Outlasting Gap Timeout when It Commits then Stream Its Change Late")
+    void integrationTestGivenTransactionOutlastingGapTimeout_whenItCommits_thenStreamItsChangeLate() throws Exception {
+        //Given / Arrange
+        BlockingQueue<PersonChangeVO> events = subscribe(null);
+        double late = meterRegistry.counter("person.changes.late").count();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeUpdate("insert into person_change (person_id, type) values (999, 'DELETED')");
+
+            //When / Act
+            // Sent once gap-timeout takes the hole for a rollback
+            services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+            PersonChangeVO moises = next(events);
+            connection.commit();
+
+            //Then / Assert
+            PersonChangeVO inFlight = next(events);
+            assertEquals("m.dias009@gmail.com", moises.getPerson().getEmail());
+            assertEquals(999L, inFlight.getId());
+            assertEquals(moises.getSeq() - 1, inFlight.getSeq());
+        }
+        assertEquals(late + 1, meterRegistry.counter("person.changes.late").count());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Pruned Changes when Reconnect From Before Them then Return Gone")
+    void integrationTestGivenPrunedChanges_whenReconnectFromBeforeThem_thenReturnGone() throws Exception {
+        //Given / Arrange
+        services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        services.create(new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"));
+        List<Long> seqs = lastSeqs(2);
+        jdbcTemplate.update("delete from person_change where seq <= ?", seqs.get(0));
+
+        //When / Act
+        HttpResponse<Stream<String>> response = connect(seqs.get(0) - 1);
+
+        //Then / Assert
+        assertEquals(410, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/problem+json"));
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.changes;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.controllers.PersonController;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangeVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonChangesPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonChangeStream;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on an in-memory H2 database, no Docker needed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "person.changes.poll-interval=20ms",
+        "person.changes.gap-timeout=100ms"})
+@ActiveProfiles("h2")
+class PersonDeltaSyncIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private PersonChangeStream changeStream;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @LocalServerPort
+    private int port;
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    private String fullReadToken() {
+        return given().port(port)
+                .when().get("/person")
+                .then().statusCode(200)
+                .extract().header(PersonController.SYNC_TOKEN_HEADER);
+    }
+
+    private PersonChangesPageVO changesSince(String token, int limit) {
+        return given().port(port)
+                .queryParam("changedSince", token)
+                .queryParam("limit", limit)
+                .when().get("/person")
+                .then().statusCode(200)
+                .extract().as(PersonChangesPageVO.class);
+    }
+
+    //Until the stream has published every change written so far
+    private void awaitPublished() throws InterruptedException {
+        Long newest = jdbcTemplate.queryForObject("select max(seq) from person_change", Long.class);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (changeStream.getPublished() < newest) {
+            assertTrue(System.nanoTime() < deadline, "Changes up to " + newest + " not published");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Token Of Full Read when Sync then Return Latest Change Of Each Person With Tombstones")
+    void integrationTestGivenTokenOfFullRead_whenSync_thenReturnLatestChangeOfEachPersonWithTombstones() throws Exception {
+        //Given / Arrange
+        Person moises = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        awaitPublished();
+        String token = fullReadToken();
+        Person leonardo = services.create(new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"));
+        services.update(new Person(moises.getId(), "Moises", "Nascimento", "Campinas - São Paulo", "Male", "m.dias009@gmail.com", null), 0L);
+        services.update(new Person(moises.getId(), "Moises", "Souza", "Campinas - São Paulo", "Male", "m.dias009@gmail.com", null), 1L);
+        services.delete(leonardo.getId());
+        awaitPublished();
+
+        //When / Act
+        PersonChangesPageVO page = changesSince(token, 10);
+
+        //Then / Assert
+        assertFalse(page.isHasMore());
+        assertEquals(2, page.getChanges().size());
+        PersonChangeVO updated = page.getChanges().get(0);
+        assertEquals(PersonChangeVO.Type.SAVED, updated.getType());
+        assertEquals("Souza", updated.getPerson().getLastName());
+        assertEquals(2L, updated.getPerson().getVersion());
+        PersonChangeVO tombstone = page.getChanges().get(1);
+        assertEquals(PersonChangeVO.Type.DELETED, tombstone.getType());
+        assertEquals(leonardo.getId(), tombstone.getId());
+        assertNull(tombstone.getPerson());
+
+        // Nothing changed since the returned token
+        PersonChangesPageVO again = changesSince(page.getNextToken(), 10);
+        assertTrue(again.getChanges().isEmpty());
+        assertEquals(page.getNextToken(), again.getNextToken());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given More Changes Than Limit when Sync then Page Through Them With The Next Token")
+    void integrationTestGivenMoreChangesThanLimit_whenSync_thenPageThroughThemWithTheNextToken() throws Exception {
+        //Given / Arrange
+        String token = fullReadToken();
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            people.add(new Person("First" + i, "Last" + i, "Campinas - São Paulo", "Male", "sync" + i + "@gmail.com"));
+        }
+        services.createAll(people);
+        awaitPublished();
+
+        //When / Act
+        List<String> emails = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        PersonChangesPageVO page;
+        do {
+            page = changesSince(token, 2);
+            page.getChanges().forEach(change -> emails.add(change.getPerson().getEmail()));
+            sizes.add(page.getChanges().size());
+            token = page.getNextToken();
+        } while (page.isHasMore());
+
+        //Then / Assert
+        assertEquals(List.of(2, 2, 1), sizes);
+        assertEquals(List.of("sync0@gmail.com", "sync1@gmail.com", "sync2@gmail.com", "sync3@gmail.com", "sync4@gmail.com"), emails);
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Hole Skipped By The Token when Its Transaction Commits Late then Return Its Change On The Next Sync")
+    void integrationTestGivenHoleSkippedByTheToken_whenItsTransactionCommitsLate_thenReturnItsChangeOnTheNextSync() throws Exception {
+        //Given / Arrange
+        Person moises = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        awaitPublished();
+        String token = fullReadToken();
+        PersonChangesPageVO page;
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            // Takes the next seq but stays invisible until the commit, long after gap-timeout
+            statement.executeUpdate("insert into person_change (person_id, type) values (" + moises.getId() + ", 'DELETED')");
+            services.create(new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"));
+            awaitPublished();
+            page = changesSince(token, 10);
+            connection.commit();
+        }
+
+        //When / Act
+        PersonChangesPageVO late = changesSince(page.getNextToken(), 10);
+
+        //Then / Assert
+        assertEquals(List.of("leonardo@gmail.com"), page.getChanges().stream().map(change -> change.getPerson().getEmail()).toList());
+        // The token past leonardo still points at the hole below him
+        assertTrue(page.getNextToken().contains("~"), page.getNextToken());
+        assertEquals(1, late.getChanges().size());
+        assertEquals(PersonChangeVO.Type.DELETED, late.getChanges().get(0).getType());
+        assertEquals(moises.getId(), late.getChanges().get(0).getId());
+        assertFalse(late.getNextToken().contains("~"), late.getNextToken());
+        assertTrue(changesSince(late.getNextToken(), 10).getChanges().isEmpty());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Token Older Than Retained Changes when Sync then Return Gone")
+    void integrationTestGivenTokenOlderThanRetainedChanges_whenSync_thenReturnGone() throws Exception {
+        //Given / Arrange
+        String token = fullReadToken();
+        services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        services.create(new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"));
+        awaitPublished();
+        jdbcTemplate.update("delete from person_change where seq < (select max(seq) from person_change)");
+
+        //When / Act / Then / Assert
+        given().port(port)
+                .queryParam("changedSince", token)
+                .when().get("/person")
+                .then().statusCode(410)
+                .contentType("application/problem+json");
+        given().port(port)
+                .queryParam("changedSince", "not-a-token")
+                .when().get("/person")
+                .then().statusCode(400);
+    }
+}
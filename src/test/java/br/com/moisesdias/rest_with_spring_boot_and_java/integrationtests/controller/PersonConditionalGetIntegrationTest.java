@@ -0,0 +1,129 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.controller;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on an in-memory H2 database, no Docker needed
+//Compresses every body, so a single person goes through Tomcat's compression too
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "server.compression.min-response-size=1B")
+@ActiveProfiles("h2")
+class PersonConditionalGetIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @LocalServerPort
+    private int port;
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    private Response findAll(String ifNoneMatch) {
+        return ifNoneMatch == null
+                ? given().port(port).when().get("/person")
+                : given().port(port).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch).when().get("/person");
+    }
+
+    private List<String> lastNames(Response response) {
+        return response.then().statusCode(200).extract().jsonPath().getList("lastName", String.class);
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Table ETag when Each Write Commits then Never Answer Not Modified With The Old Tag")
+    void integrationTestGivenTableETag_whenEachWriteCommits_thenNeverAnswerNotModifiedWithTheOldTag() {
+        //Given / Arrange
+        Person moises = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        Response first = findAll(null);
+        String etag = first.header(HttpHeaders.ETAG);
+        assertEquals(List.of("Dias"), lastNames(first));
+        assertEquals(304, findAll(etag).statusCode());
+
+        //When / Act
+        services.update(new Person(moises.getId(), "Moises", "Nascimento", "Campinas - São Paulo", "Male", "m.dias009@gmail.com", null), 0L);
+        Response updated = findAll(etag);
+
+        //Then / Assert
+        // The gzipped list kept for the old tag is not served either
+        assertEquals(List.of("Nascimento"), lastNames(updated));
+        String updatedEtag = updated.header(HttpHeaders.ETAG);
+        assertNotEquals(etag, updatedEtag);
+
+        // A write that rolls back leaves the tag alone
+        assertThrows(ResourceNotFoundException.class, () -> services.create(
+                new Person("Other", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com")));
+        assertEquals(304, findAll(updatedEtag).statusCode());
+
+        // Delete one, create another: the same count, and a new tag all the same
+        services.delete(moises.getId());
+        services.create(new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"));
+        Response replaced = findAll(updatedEtag);
+        assertEquals(List.of("Costa"), lastNames(replaced));
+        assertNotEquals(updatedEtag, replaced.header(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Client Accepting Gzip when Get Person Or List then Compress Every Representation")
+    void integrationTestGivenClientAcceptingGzip_whenGetPersonOrList_thenCompressEveryRepresentation() {
+        //Given / Arrange
+        Person moises = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+
+        //When / Act / Then / Assert
+        // Compressed by Tomcat, which leaves a response with a strong ETag alone
+        given().port(port)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .when().get("/person/{id}", moises.getId())
+                .then().statusCode(200)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.ETAG, startsWith("W/"))
+                .header(HttpHeaders.VARY, containsStringIgnoringCase(HttpHeaders.ACCEPT_ENCODING));
+        given().port(port)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .accept(MediaType.APPLICATION_CBOR_VALUE)
+                .when().get("/person")
+                .then().statusCode(200)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.VARY, containsStringIgnoringCase(HttpHeaders.ACCEPT_ENCODING));
+        // Compressed ahead of time by the list cache
+        given().port(port)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .when().get("/person")
+                .then().statusCode(200)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.VARY, containsStringIgnoringCase(HttpHeaders.ACCEPT_ENCODING));
+
+        // Not compressed for a client that does not ask for it, but still told it could be
+        // Without content decoders RestAssured sends no Accept-Encoding of its own
+        Response identity = given().port(port)
+                .config(RestAssuredConfig.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+                .when().get("/person/{id}", moises.getId());
+        identity.then().statusCode(200)
+                .header(HttpHeaders.VARY, containsStringIgnoringCase(HttpHeaders.ACCEPT_ENCODING));
+        assertNull(identity.header(HttpHeaders.CONTENT_ENCODING));
+    }
+}
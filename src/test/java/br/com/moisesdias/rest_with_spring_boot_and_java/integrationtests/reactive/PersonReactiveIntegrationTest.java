@@ -0,0 +1,255 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.reactive;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs the reactive stack on an in-memory H2 database, no Docker needed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"reactive", "h2"})
+class PersonReactiveIntegrationTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @AfterEach
+    public void cleanUp() {
+        databaseClient.sql("delete from person").then().block();
+    }
+
+    private Person create(String firstName, String email) {
+        return client.post().uri("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Person(firstName, "Dias", "Campinas - São Paulo", "Male", email))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Person.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @DisplayName("Given Person Object when Create, FindById, Update and Delete then Behave Like The Servlet Stack")
+    @Test
+    void testGivenPersonObject_WhenCrud_ThenBehaveLikeTheServletStack() {
+        //Given / Arrange
+        Person person = create("Moises", "m.dias009@gmail.com");
+        assertNotNull(person.getId());
+
+        //When / Act / Then / Assert
+        client.get().uri("/person/{id}", person.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("m.dias009@gmail.com");
+
+        person.setFirstName("Leonardo");
+        client.put().uri("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(person)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Leonardo");
+
+        client.delete().uri("/person/{id}", person.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        client.get().uri("/person/{id}", person.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @DisplayName("Given Person Object when Create, Update Without If-Match and Delete then Log Each Write With Its Version")
+    @Test
+    void testGivenPersonObject_WhenCreateUpdateAndDelete_ThenLogEachWriteWithItsVersion() {
+        //Given / Arrange
+        Person person = create("Moises", "m.dias009@gmail.com");
+        person.setFirstName("Leonardo");
+
+        //When / Act
+        Person updated = client.put().uri("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(person)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"1-json\"")
+                .expectBody(Person.class)
+                .returnResult()
+                .getResponseBody();
+        client.delete().uri("/person/{id}", person.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        //Then / Assert
+        assertEquals(0L, person.getVersion());
+        assertNotNull(updated);
+        assertEquals(1L, updated.getVersion());
+        List<String> changes = databaseClient.sql("select type, payload from person_change where person_id = :id order by seq")
+                .bind("id", person.getId())
+                .map(row -> row.get("type", String.class) + " " + row.get("payload", String.class))
+                .all()
+                .collectList()
+                .block();
+        assertNotNull(changes);
+        assertEquals(3, changes.size());
+        assertTrue(changes.get(0).startsWith("SAVED ") && changes.get(0).contains("\"firstName\":\"Moises\""), changes.get(0));
+        assertTrue(changes.get(1).startsWith("SAVED ") && changes.get(1).contains("\"version\":1"), changes.get(1));
+        assertEquals("DELETED null", changes.get(2));
+    }
+
+    @DisplayName("Given ETags when Polling and Updating then Answer Not Modified and Precondition Failed")
+    @Test
+    void testGivenETags_WhenPollingAndUpdating_ThenAnswerNotModifiedAndPreconditionFailed() {
+        //Given / Arrange
+        Person person = create("Moises", "m.dias009@gmail.com");
+        String etag = client.get().uri("/person/{id}", person.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"0-json\"")
+                .returnResult(Person.class)
+                .getResponseHeaders().getETag();
+        String tableEtag = client.get().uri("/person")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Person.class)
+                .getResponseHeaders().getETag();
+
+        //When / Act / Then / Assert
+        client.get().uri("/person/{id}", person.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+        client.get().uri("/person")
+                .header(HttpHeaders.IF_NONE_MATCH, tableEtag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        person.setFirstName("Leonardo");
+        client.put().uri("/person")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(person)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"1-json\"");
+        client.put().uri("/person")
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(person)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        client.get().uri("/person")
+                .header(HttpHeaders.IF_NONE_MATCH, tableEtag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @DisplayName("Given Existing Email when Create then Return Not Found With The Servlet Error Body")
+    @Test
+    void testGivenExistingEmail_WhenCreate_ThenReturnNotFoundWithTheServletErrorBody() {
+        //Given / Arrange
+        create("Moises", "m.dias009@gmail.com");
+
+        //When / Act / Then / Assert
+        client.post().uri("/person")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new Person("Leonardo", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Person already exist with give e-mail: m.dias009@gmail.com")
+                .jsonPath("$.instance").isEqualTo("/person")
+                .jsonPath("$.timestamp").exists();
+    }
+
+    @DisplayName("Given Missing Id when Delete then Return Not Found With The Servlet Error Body")
+    @Test
+    void testGivenMissingId_WhenDelete_ThenReturnNotFoundWithTheServletErrorBody() {
+        client.delete().uri("/person/{id}", 999_999L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("No records found for this ID!")
+                .jsonPath("$.instance").isEqualTo("/person/999999");
+    }
+
+    @DisplayName("Given People when FindAll as NDJSON then Stream One Person Per Line")
+    @Test
+    void testGivenPeople_WhenFindAllAsNdjson_ThenStreamOnePersonPerLine() {
+        //Given / Arrange
+        create("Moises", "m.dias009@gmail.com");
+        create("Leonardo", "leonardo@gmail.com");
+
+        //When / Act
+        Flux<Person> people = client.get().uri("/person")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Person.class)
+                .getResponseBody();
+
+        //Then / Assert
+        List<String> names = people.map(Person::getFirstName).collectList().block();
+        assertEquals(List.of("Moises", "Leonardo"), names);
+    }
+
+    @DisplayName("Given NDJSON Batch when CreateAll then Report Each Item And Page Through The Result")
+    @Test
+    void testGivenNdjsonBatch_WhenCreateAll_ThenReportEachItemAndPageThroughTheResult() {
+        //Given / Arrange
+        String body = """
+                {"firstName":"Moises","lastName":"Dias","address":"Campinas","gender":"Male","email":"m.dias009@gmail.com"}
+                {"firstName":"Leonardo","lastName":"Dias","address":"Campinas","gender":"Male","email":"m.dias009@gmail.com"}
+                {"firstName":"Gabriela","lastName":"Dias","address":"Campinas","gender":"Female","email":"gabi@gmail.com"}
+                """;
+
+        //When / Act
+        List<BatchItemResultVO> results = client.post().uri("/person/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BatchItemResultVO.class)
+                .returnResult()
+                .getResponseBody();
+
+        //Then / Assert
+        assertNotNull(results);
+        assertEquals(3, results.size());
+        assertEquals(BatchItemResultVO.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemResultVO.Status.FAILED, results.get(1).getStatus());
+        assertEquals(BatchItemResultVO.Status.CREATED, results.get(2).getStatus());
+        assertEquals(results.get(0).getId() + 1, results.get(2).getId());
+
+        PersonPageVO page = client.get().uri("/person?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PersonPageVO.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(page);
+        assertEquals(1, page.getContent().size());
+        assertEquals(results.get(0).getId(), page.getNextCursor());
+    }
+}
@@ -0,0 +1,186 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.routing;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.config.ReplicaLagMonitor;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonSuggestServices;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Two unconnected in-memory H2 databases stand in for the primary and the replica, so each read shows where it went
+@SpringBootTest(properties = {
+        "person.datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "person.datasource.replica.driver-class-name=org.h2.Driver",
+        "person.datasource.replica.username=sa",
+        "person.datasource.replica.password=",
+        "person.datasource.replica.lag-query=select lag_seconds from replica_lag",
+        "person.datasource.replica.max-lag=5s",
+        "person.datasource.replica.lag-check-interval=PT1H"})
+@ActiveProfiles("h2")
+class ReadWriteRoutingIntegrationTest {
+
+    @TestConfiguration
+    static class ReplicaSchema {
+
+        //A real replica gets its schema through replication
+        @Bean
+        static BeanPostProcessor migrateReplica() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (beanName.equals("replicaDataSource")) {
+                        Flyway.configure().dataSource((DataSource) bean).load().migrate();
+                        new JdbcTemplate((DataSource) bean).execute(
+                                "create table if not exists replica_lag (lag_seconds bigint)");
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private PersonSuggestServices suggestServices;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private Person written;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        setReplicaLag(0);
+        written = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        replica.update("insert into person (id, first_name, last_name, address, gender, email, version) " +
+                "values (100000, 'Beatriz', 'Diniz', 'São Paulo - São Paulo', 'Female', 'beatriz@gmail.com', 0)");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+        replica.update("delete from person");
+    }
+
+    private void setReplicaLag(long seconds) {
+        replica.update("delete from replica_lag");
+        replica.update("insert into replica_lag (lag_seconds) values (?)", seconds);
+        lagMonitor.check();
+    }
+
+    private List<String> findAllEmails() {
+        return services.findAll().stream().map(PersonVO::getEmail).toList();
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Replica In Sync when Read then Read From Replica And Write To Primary")
+    void integrationTestGivenReplicaInSync_whenRead_thenReadFromReplicaAndWriteToPrimary() {
+
+        //When / Act
+        double replicaBefore = meterRegistry.counter("person.datasource.connections.routed", "target", "replica").count();
+        List<String> emails = findAllEmails();
+
+        //Then / Assert
+        assertTrue(lagMonitor.isReplicaUsable());
+        assertEquals(List.of("beatriz@gmail.com"), emails);
+        // Spring Data's own finders are read-only transactions too; the write itself landed on the primary
+        assertFalse(repository.existsById(written.getId()));
+        assertEquals(1, primary.queryForObject("select count(*) from person where id = ?", Integer.class, written.getId()));
+        assertEquals(replicaBefore + 2,
+                meterRegistry.counter("person.datasource.connections.routed", "target", "replica").count());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Replica Behind An Update when Read Through Cache And Suggest then Read From Primary")
+    void integrationTestGivenReplicaBehindAnUpdate_whenReadThroughCacheAndSuggest_thenReadFromPrimary() {
+        //Given / Arrange
+        // Replicated at version 0, then updated on the primary only: the replica is within max-lag but behind
+        replica.update("insert into person (id, first_name, last_name, address, gender, email, version) " +
+                "values (?, 'Moises', 'Dias', 'Campinas - São Paulo', 'Male', 'm.dias009@gmail.com', 0)", written.getId());
+        setReplicaLag(3);
+        assertEquals(0L, services.findById(written.getId()).orElseThrow().getVersion());
+
+        //When / Act
+        services.update(new Person(written.getId(), "Moises", "Nascimento", "Campinas - São Paulo", "Male", "m.dias009@gmail.com", null), 0L);
+        PersonVO read = services.findById(written.getId()).orElseThrow();
+        int indexed = suggestServices.rebuild();
+
+        //Then / Assert
+        assertTrue(lagMonitor.isReplicaUsable());
+        assertEquals("Nascimento", read.getLastName());
+        assertEquals(1L, read.getVersion());
+        assertEquals(1, indexed);
+        assertEquals("Nascimento", suggestServices.suggest("moi", 10).get(0).getLastName());
+        assertEquals(true, suggestServices.check().get("consistent"));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Replica Lagging Or Broken when Read then Fall Back To Primary")
+    void integrationTestGivenReplicaLaggingOrBroken_whenRead_thenFallBackToPrimary() {
+
+        //When / Act / Then / Assert
+        setReplicaLag(60);
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals(List.of("m.dias009@gmail.com"), findAllEmails());
+
+        replica.update("delete from replica_lag");
+        lagMonitor.check();
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals(List.of("m.dias009@gmail.com"), findAllEmails());
+
+        setReplicaLag(1);
+        assertEquals(List.of("beatriz@gmail.com"), findAllEmails());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Two Pools when Read Metrics then Report Each Pool")
+    void integrationTestGivenTwoPools_whenReadMetrics_thenReportEachPool() {
+
+        //When / Act / Then / Assert
+        for (String pool : List.of("primary", "replica")) {
+            assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", pool).gauge(), pool);
+        }
+        assertEquals(0.0, meterRegistry.get("person.datasource.replica.lag").gauge().value());
+    }
+}
@@ -0,0 +1,175 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonImportResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonExportFormat;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonImportServices;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on an in-memory H2 database, no Docker needed
+@SpringBootTest(properties = {"person.import.chunk-size=2", "person.import.parallelism=2"})
+@ActiveProfiles("h2")
+class PersonImportServicesIntegrationTest {
+
+    @Autowired
+    private PersonImportServices importServices;
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    private Path file(String name, String content) throws Exception {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private List<String> emails() {
+        return repository.findAll().stream().map(Person::getEmail).sorted().toList();
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given CSV File when Import then Upsert By Email And Report Failed Rows")
+    void integrationTestGivenCsvFile_whenImport_thenUpsertByEmailAndReportFailedRows() throws Exception {
+        //Given / Arrange
+        Person moises = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        services.findById(moises.getId());
+        Path csv = file("people.csv", """
+                id,firstName,lastName,address,gender,email,version
+                ,Ana,Diniz,Campinas,Female,ana@gmail.com,
+                ,Ana,Souza,"Rua A, 10",Female,ana@gmail.com,
+                99,Moises,Nascimento,Campinas - São Paulo,Male,m.dias009@gmail.com,7
+                ,,Souza,Campinas,Female,bia@gmail.com,
+                ,Caio,Souza
+                """);
+
+        //When / Act
+        PersonImportResultVO result = importServices.importFile(csv, PersonExportFormat.CSV);
+
+        //Then / Assert
+        assertTrue(result.isComplete());
+        assertEquals(5, result.getRecords());
+        assertEquals(2, result.getUpserted());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(2, result.getFailed());
+
+        Person ana = repository.findByEmail("ana@gmail.com").orElseThrow();
+        assertEquals("Souza", ana.getLastName());
+        assertEquals("Rua A, 10", ana.getAddress());
+        assertEquals(0L, ana.getVersion());
+        // Updated in place, and no longer served stale from the caches
+        PersonVO updated = services.findById(moises.getId()).orElseThrow();
+        assertEquals("Nascimento", updated.getLastName());
+        assertEquals(1L, updated.getVersion());
+
+        // Both upserts reached the change log, the update with its new version
+        List<String> changes = jdbcTemplate.queryForList(
+                "select payload from person_change where person_id in (?, ?) order by seq", String.class, ana.getId(), moises.getId());
+        assertEquals(3, changes.size());
+        assertEquals(1L, mapper.readTree(changes.get(2)).get("version").asLong());
+
+        List<String> errors = Files.readAllLines(directory.resolve("people.csv.errors.ndjson"));
+        assertEquals(2, errors.size());
+        JsonNode blankName = mapper.readTree(errors.get(0));
+        assertEquals(4, blankName.get("record").asLong());
+        assertEquals("bia@gmail.com", blankName.get("email").asText());
+        assertTrue(blankName.get("message").asText().startsWith("firstName"));
+        assertEquals(5, mapper.readTree(errors.get(1)).get("record").asLong());
+
+        // The ids handed out by the import do not collide with Hibernate's
+        Person leonardo = services.create(new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"));
+        assertNotEquals(ana.getId(), leonardo.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Checkpoint when Import then Resume After The Committed Records")
+    void integrationTestGivenCheckpoint_whenImport_thenResumeAfterTheCommittedRecords() throws Exception {
+        //Given / Arrange
+        Path ndjson = file("people.ndjson", """
+                {"firstName":"Ana","lastName":"Diniz","address":"Campinas","gender":"Female","email":"ana@gmail.com"}
+                {"firstName":"Bia","lastName":"Diniz","address":"Campinas","gender":"Female","email":"bia@gmail.com"}
+                {"firstName":"Caio","lastName":"Diniz","address":"Campinas","gender":"Male","email":"caio@gmail.com"}
+                {"firstName":"Davi","lastName":"Diniz","address":"Campinas","gender":"Male","email":"davi@gmail.com"}
+                """);
+        // As left by a run that died after committing the first chunk and logging an error of the second
+        PersonImportResultVO crashed = new PersonImportResultVO(ndjson.toAbsolutePath().toString(), Files.size(ndjson),
+                Files.getLastModifiedTime(ndjson).toMillis(), 2, 2, 0, 0, 0, false);
+        Files.write(directory.resolve("people.ndjson.checkpoint.json"), mapper.writeValueAsBytes(crashed));
+        file("people.ndjson.errors.ndjson", "{\"record\":3,\"email\":null,\"message\":\"stale\"}\n");
+
+        //When / Act
+        PersonImportResultVO result = importServices.importFile(ndjson, PersonExportFormat.NDJSON);
+
+        //Then / Assert
+        assertTrue(result.isComplete());
+        assertEquals(4, result.getRecords());
+        assertEquals(4, result.getUpserted());
+        assertEquals(List.of("caio@gmail.com", "davi@gmail.com"), emails());
+        assertEquals(0, Files.size(directory.resolve("people.ndjson.errors.ndjson")));
+
+        // A completed import is not run again
+        repository.deleteAll();
+        assertTrue(importServices.importFile(ndjson, PersonExportFormat.NDJSON).isComplete());
+        assertTrue(emails().isEmpty());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Exported File when Import Into Empty Table then Restore Every Person")
+    void integrationTestGivenExportedFile_whenImportIntoEmptyTable_thenRestoreEveryPerson() throws Exception {
+        //Given / Arrange
+        services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        services.create(new Person("Ana \"Bia\"", "Diniz", "Rua A, 10\nCampinas", "Female", "ana@gmail.com"));
+        services.create(new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com"));
+        for (PersonExportFormat format : PersonExportFormat.values()) {
+            Path export = directory.resolve("people." + format.getExtension());
+            try (OutputStream out = Files.newOutputStream(export)) {
+                services.export(format, out);
+            }
+            repository.deleteAll();
+
+            //When / Act
+            PersonImportResultVO result = importServices.importFile(export, format);
+
+            //Then / Assert
+            assertEquals(3, result.getUpserted());
+            assertEquals(List.of("ana@gmail.com", "leonardo@gmail.com", "m.dias009@gmail.com"), emails());
+            Person quoted = repository.findByEmail("ana@gmail.com").orElseThrow();
+            assertEquals("Ana \"Bia\"", quoted.getFirstName());
+            assertEquals("Rua A, 10\nCampinas", quoted.getAddress());
+        }
+    }
+}
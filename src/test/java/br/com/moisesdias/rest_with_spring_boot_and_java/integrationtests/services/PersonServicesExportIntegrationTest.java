@@ -0,0 +1,88 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonExportFormat;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on an in-memory H2 database, no Docker needed
+@SpringBootTest
+@ActiveProfiles("h2")
+class PersonServicesExportIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private Person moises;
+    private Person quoted;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        moises = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        quoted = services.create(new Person("Ana \"Bia\"", "Diniz", "Rua A, 10\nCampinas", "Female", "ana@gmail.com"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    private String export(PersonExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        services.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given People when Export NDJSON then Write One PersonVO Per Line")
+    void integrationTestGivenPeople_whenExportNdjson_thenWriteOnePersonVOPerLine() throws Exception {
+
+        //When / Act
+        List<String> lines = export(PersonExportFormat.NDJSON).lines().toList();
+
+        //Then / Assert
+        assertEquals(2, lines.size());
+        PersonVO first = mapper.readValue(lines.get(0), PersonVO.class);
+        PersonVO second = mapper.readValue(lines.get(1), PersonVO.class);
+        assertEquals(moises.getId(), first.getId());
+        assertEquals("m.dias009@gmail.com", first.getEmail());
+        assertEquals(0L, first.getVersion());
+        assertEquals("Ana \"Bia\"", second.getFirstName());
+        assertEquals("Rua A, 10\nCampinas", second.getAddress());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given People when Export CSV then Quote Only The Fields That Need It")
+    void integrationTestGivenPeople_whenExportCsv_thenQuoteOnlyTheFieldsThatNeedIt() throws Exception {
+
+        //When / Act
+        String csv = export(PersonExportFormat.CSV);
+
+        //Then / Assert
+        assertEquals("id,firstName,lastName,address,gender,email,version\r\n"
+                + moises.getId() + ",Moises,Dias,Campinas - São Paulo,Male,m.dias009@gmail.com,0\r\n"
+                + quoted.getId() + ",\"Ana \"\"Bia\"\"\",Diniz,\"Rua A, 10\nCampinas\",Female,ana@gmail.com,0\r\n", csv);
+    }
+}
@@ -0,0 +1,186 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchCriteriaVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSearchPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.BadRequestException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on an in-memory H2 database, whose EXPLAIN shows the index each query is planned with
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.services.PersonServicesSearchIntegrationTest$LastStatement")
+@ActiveProfiles("h2")
+class PersonServicesSearchIntegrationTest {
+
+    //Remembers the last SQL statement Hibernate prepared, to EXPLAIN it
+    public static class LastStatement implements StatementInspector {
+        static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        List<Person> people = new ArrayList<>();
+        people.add(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        people.add(new Person("Leonardo", "Dias", "Campinas - São Paulo", "Male", "leonardo@gmail.com"));
+        people.add(new Person("Beatriz", "Diniz", "São Paulo - São Paulo", "Female", "beatriz@gmail.com"));
+        people.add(new Person("Marcos", "Araujo", "São Paulo - São Paulo", "Male", "maraujo@gmail.com"));
+        people.add(new Person("Julia", "Di_as", "Santos - São Paulo", "Female", "julia@gmail.com"));
+        repository.saveAll(people);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    private static PersonSearchCriteriaVO criteria(String lastName, String sort, int limit) {
+        PersonSearchCriteriaVO criteria = new PersonSearchCriteriaVO();
+        criteria.setLastName(lastName);
+        criteria.setSort(sort);
+        criteria.setLimit(limit);
+        return criteria;
+    }
+
+    private String explainLastStatement(Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + LastStatement.sql, String.class, args));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Last Name Prefix when Search then Page Through Matches In Order")
+    void integrationTestGivenLastNamePrefix_whenSearch_thenPageThroughMatchesInOrder() {
+
+        //When / Act
+        PersonSearchCriteriaVO criteria = criteria("Di*", "lastName", 2);
+        PersonSearchPageVO first = services.search(criteria);
+        criteria.setCursor(first.getNextCursor());
+        PersonSearchPageVO second = services.search(criteria);
+
+        //Then / Assert
+        assertEquals(List.of("Di_as", "Dias"), first.getContent().stream().map(PersonVO::getLastName).toList());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of("Dias", "Diniz"), second.getContent().stream().map(PersonVO::getLastName).toList());
+        assertNull(second.getNextCursor());
+        assertNotEquals(first.getContent().get(1).getId(), second.getContent().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Wildcards In Prefix when Search then Match Them Literally")
+    void integrationTestGivenWildcardsInPrefix_whenSearch_thenMatchThemLiterally() {
+
+        //When / Act
+        PersonSearchPageVO page = services.search(criteria("Di_*", "id", 10));
+
+        //Then / Assert
+        assertEquals(List.of("Julia"), page.getContent().stream().map(PersonVO::getFirstName).toList());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Exact Filters when Search then Return Only Exact Matches")
+    void integrationTestGivenExactFilters_whenSearch_thenReturnOnlyExactMatches() {
+        //Given / Arrange
+        PersonSearchCriteriaVO criteria = criteria("Dias", "firstName", 10);
+        criteria.setGender("Male");
+        criteria.setDirection("desc");
+
+        //When / Act
+        PersonSearchPageVO page = services.search(criteria);
+
+        //Then / Assert
+        assertEquals(List.of("Moises", "Leonardo"), page.getContent().stream().map(PersonVO::getFirstName).toList());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Cursor Of Another Sort when Search then Throw BadRequestException")
+    void integrationTestGivenCursorOfAnotherSort_whenSearch_thenThrowBadRequestException() {
+        //Given / Arrange
+        PersonSearchCriteriaVO criteria = criteria("Di*", "lastName", 1);
+        criteria.setCursor(services.search(criteria).getNextCursor());
+        criteria.setSort("email");
+
+        //When / Act / Then / Assert
+        assertThrows(BadRequestException.class, () -> services.search(criteria));
+        assertThrows(BadRequestException.class, () -> services.search(criteria("Di*", "address", 1)));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Last Name Prefix And Cursor when Search then Use The Last Name Index")
+    void integrationTestGivenLastNamePrefixAndCursor_whenSearch_thenUseTheLastNameIndex() {
+        //Given / Arrange
+        PersonSearchCriteriaVO criteria = criteria("Di*", "lastName", 1);
+        criteria.setCursor(services.search(criteria).getNextCursor());
+
+        //When / Act
+        services.search(criteria);
+        String plan = explainLastStatement("Di%", "Di_as", "Di_as", 1L, 2);
+
+        //Then / Assert
+        assertTrue(plan.toLowerCase().contains("idx_person_last_name_id"), plan);
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given First Name Prefix And Cursor when Search then Use The First Name Index")
+    void integrationTestGivenFirstNamePrefixAndCursor_whenSearch_thenUseTheFirstNameIndex() {
+        //Given / Arrange
+        PersonSearchCriteriaVO criteria = criteria(null, "firstName", 1);
+        criteria.setFirstName("M*");
+        PersonSearchPageVO first = services.search(criteria);
+        criteria.setCursor(first.getNextCursor());
+
+        //When / Act
+        PersonSearchPageVO second = services.search(criteria);
+        String plan = explainLastStatement("M%", "Marcos", "Marcos", first.getContent().get(0).getId(), 2);
+
+        //Then / Assert
+        assertEquals(List.of("Marcos"), first.getContent().stream().map(PersonVO::getFirstName).toList());
+        assertEquals(List.of("Moises"), second.getContent().stream().map(PersonVO::getFirstName).toList());
+        // Ordered by first_name, id like the index, so the page is read off it without a sort
+        assertTrue(plan.toLowerCase().contains("idx_person_first_name_id"), plan);
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Email Prefix when Search then Use The Email Index")
+    void integrationTestGivenEmailPrefix_whenSearch_thenUseTheEmailIndex() {
+        //Given / Arrange
+        PersonSearchCriteriaVO criteria = criteria(null, "email", 10);
+        criteria.setEmail("ma*");
+
+        //When / Act
+        services.search(criteria);
+        String plan = explainLastStatement("ma%", 11);
+
+        //Then / Assert
+        assertTrue(plan.toLowerCase().contains("uk_person_email"), plan);
+    }
+}
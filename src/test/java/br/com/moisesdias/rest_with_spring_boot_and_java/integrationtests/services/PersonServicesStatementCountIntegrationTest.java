@@ -0,0 +1,142 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.AbstractIntegrationTest;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PersonServicesStatementCountIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Person person;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        person = repository.save(new Person("Moises",
+                "Dias",
+                "Campinas - São Paulo",
+                "Male",
+                "m.dias009@gmail.com"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Person when Update then Issue The Update And Read Its Version Back")
+    void integrationTestGivenPerson_whenUpdate_thenIssueTheUpdateAndReadItsVersionBack() {
+
+        //When / Act
+        person.setFirstName("Beatriz");
+        Person updated = services.update(person, null).orElseThrow();
+
+        //Then / Assert
+        // Without an expected version the one written is only known by reading it, by primary key
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1L, updated.getVersion());
+        assertEquals("Beatriz", repository.findById(person.getId()).get().getFirstName());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Unexistent Person when Update then Issue a Single Statement and Return Empty")
+    void integrationTestGivenUnexistentPerson_whenUpdate_thenIssueASingleStatementAndReturnEmpty() {
+
+        //When / Act
+        person.setId(person.getId() + 1000);
+        assertTrue(services.update(person, null).isEmpty());
+
+        //Then / Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Current Version when Update then Issue a Single Statement and Bump It")
+    void integrationTestGivenCurrentVersion_whenUpdate_thenIssueASingleStatementAndBumpIt() {
+
+        //When / Act
+        person.setFirstName("Beatriz");
+        Person updated = services.update(person, 0L).orElseThrow();
+
+        //Then / Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1L, updated.getVersion());
+        assertEquals(1L, repository.findById(person.getId()).get().getVersion());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Stale Version when Update then Throw PreconditionFailedException")
+    void integrationTestGivenStaleVersion_whenUpdate_thenThrowPreconditionFailedException() {
+
+        //When / Act
+        person.setFirstName("Beatriz");
+        assertThrows(PreconditionFailedException.class, () -> services.update(person, 5L));
+
+        //Then / Assert
+        assertEquals("Moises", repository.findById(person.getId()).get().getFirstName());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given PersonId when Delete then Issue a Single Statement")
+    void integrationTestGivenPersonId_whenDelete_thenIssueASingleStatement() {
+
+        //When / Act
+        services.delete(person.getId());
+
+        //Then / Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(repository.findById(person.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Unexistent PersonId when Delete then Issue a Single Statement and Throw")
+    void integrationTestGivenUnexistentPersonId_whenDelete_thenIssueASingleStatementAndThrow() {
+
+        //When / Act
+        assertThrows(ResourceNotFoundException.class, () -> services.delete(person.getId() + 1000));
+
+        //Then / Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Person when FindAll And FindById then Load No Entities")
+    void integrationTestGivenPerson_whenFindAllAndFindById_thenLoadNoEntities() {
+
+        //When / Act
+        services.findAll();
+        services.findPage(null, 10);
+        services.findById(person.getId());
+
+        //Then / Assert
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSuggestionVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonServices;
+import br.com.moisesdias.rest_with_spring_boot_and_java.services.PersonSuggestServices;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on an in-memory H2 database, no Docker needed
+@SpringBootTest
+@ActiveProfiles("h2")
+class PersonSuggestServicesIntegrationTest {
+
+    @Autowired
+    private PersonServices services;
+
+    @Autowired
+    private PersonSuggestServices suggestServices;
+
+    @Autowired
+    private PersonRepository repository;
+
+    //The context is shared with tests that delete people behind the index's back
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        suggestServices.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+        suggestServices.rebuild();
+    }
+
+    private List<String> suggestFirstNames(String query) {
+        return suggestServices.suggest(query, 10).stream().map(PersonSuggestionVO::getFirstName).toList();
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Create, Update and Delete when Suggest then Follow The Committed Writes")
+    void integrationTestGivenCreateUpdateAndDelete_whenSuggest_thenFollowTheCommittedWrites() {
+        //Given / Arrange
+        Person person = services.create(new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com"));
+        services.createAll(List.of(new Person("Leonardo", "Dias", "Campinas - São Paulo", "Male", "leonardo@gmail.com")));
+
+        //When / Act / Then / Assert
+        assertEquals(List.of("Moises"), suggestFirstNames("moi"));
+        assertEquals(2, suggestFirstNames("dias").size());
+
+        person.setFirstName("Mateus");
+        services.update(person, null);
+        assertEquals(List.of(), suggestFirstNames("moi"));
+        assertEquals(List.of("Mateus"), suggestFirstNames("mat"));
+
+        services.delete(person.getId());
+        assertEquals(List.of("Leonardo"), suggestFirstNames("dias"));
+        assertEquals(true, suggestServices.check().get("consistent"));
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Writes Bypassing The Service when Check then Report Them Until Rebuild")
+    void integrationTestGivenWritesBypassingTheService_whenCheck_thenReportThemUntilRebuild() {
+        //Given / Arrange
+        repository.save(new Person("Beatriz", "Diniz", "São Paulo - São Paulo", "Female", "beatriz@gmail.com"));
+
+        //When / Act
+        Map<String, Object> before = suggestServices.check();
+        int indexed = suggestServices.rebuild();
+        Map<String, Object> after = suggestServices.check();
+
+        //Then / Assert
+        assertEquals(1L, before.get("missing"));
+        assertEquals(false, before.get("consistent"));
+        assertEquals(1, indexed);
+        assertEquals(true, after.get("consistent"));
+        assertEquals(List.of("Beatriz"), suggestFirstNames("bea"));
+    }
+}
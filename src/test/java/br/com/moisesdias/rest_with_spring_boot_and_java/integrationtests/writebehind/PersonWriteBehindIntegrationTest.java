@@ -0,0 +1,83 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.writebehind;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on an in-memory H2 database, no Docker needed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "person.write-behind.enabled=true",
+        "person.write-behind.journal=target/person-writes-it.ndjson",
+        "person.write-behind.max-delay=50ms"})
+@ActiveProfiles("h2")
+class PersonWriteBehindIntegrationTest {
+
+    @Autowired
+    private PersonRepository repository;
+
+    @LocalServerPort
+    private int port;
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    private String accept(Person person) {
+        return given().port(port)
+                .contentType(ContentType.JSON)
+                .body(person)
+                .when().post("/person")
+                .then()
+                .statusCode(202)
+                .body("status", equalTo("QUEUED"))
+                .header("Location", containsString("/person/writes/"))
+                .extract().path("trackingId");
+    }
+
+    private String awaitOutcome(String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            String status = given().port(port)
+                    .when().get("/person/writes/" + trackingId)
+                    .then().statusCode(200)
+                    .extract().path("status");
+            if (!status.equals("QUEUED")) return status;
+            assertTrue(System.nanoTime() < deadline, "No outcome for " + trackingId);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit integration test for Given Write-Behind Enabled when POST Person then 202 And Create It Later")
+    void integrationTestGivenWriteBehindEnabled_whenPostPerson_then202AndCreateItLater() throws Exception {
+        //Given / Arrange
+        Person person = new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com");
+
+        //When / Act
+        String first = accept(person);
+        String duplicate = accept(person);
+
+        //Then / Assert
+        assertEquals("CREATED", awaitOutcome(first));
+        assertEquals("FAILED", awaitOutcome(duplicate));
+        assertTrue(repository.findByEmail("m.dias009@gmail.com").isPresent());
+        given().port(port)
+                .when().get("/person/writes/unknown")
+                .then().statusCode(404);
+    }
+}
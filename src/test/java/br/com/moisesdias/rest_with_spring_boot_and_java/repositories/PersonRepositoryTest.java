@@ -1,11 +1,13 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.repositories;
 
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
 import br.com.moisesdias.rest_with_spring_boot_and_java.integrationtests.AbstractIntegrationTest;
 import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -56,6 +58,37 @@ class PersonRepositoryTest extends AbstractIntegrationTest {
         assertEquals(2, personList.size());
     }
 
+    @DisplayName("JUnit test for Given Person list when FindByIdGreaterThan then Return Next Page")
+    @Test
+    void testGivenPersonList_whenFindByIdGreaterThan_thenReturnNextPage() {
+        Person person1 = new Person("Marcos", "Araujo", "São Paulo - São Paulo", "Male", "maraujo@gmail.com");
+        Person person2 = new Person("Leonardo", "Costa", "Uberlândia - Minas Gerais", "Male", "leonardo@gmail.com");
+
+        repository.save(person0);
+        repository.save(person1);
+        repository.save(person2);
+        //When / Act
+        List<PersonVO> page = repository.findPersonVOByIdGreaterThan(person0.getId(), Limit.of(1));
+        //Then / Assert
+        assertEquals(1, page.size());
+        assertEquals(person1.getId(), page.get(0).getId());
+    }
+
+    @DisplayName("JUnit test for Given Person list when FindPersonVOByIdGreaterThan then Return Next Page Of Projections")
+    @Test
+    void testGivenPersonList_whenFindPersonVOByIdGreaterThan_thenReturnNextPageOfProjections() {
+        Person person1 = new Person("Marcos", "Araujo", "São Paulo - São Paulo", "Male", "maraujo@gmail.com");
+
+        repository.save(person0);
+        repository.save(person1);
+        //When / Act
+        List<PersonVO> page = repository.findPersonVOByIdGreaterThan(person0.getId(), Limit.of(1));
+        Optional<PersonVO> found = repository.findPersonVOById(person0.getId());
+        //Then / Assert
+        assertEquals(List.of(PersonVO.of(person1)), page);
+        assertEquals(PersonVO.of(person0), found.orElseThrow());
+    }
+
     @DisplayName("JUnit test for Given Person Object when FindById then Return Person Object")
     @Test
     void testGivenPersonObject_whenFindById_thenReturnPersonObject() {
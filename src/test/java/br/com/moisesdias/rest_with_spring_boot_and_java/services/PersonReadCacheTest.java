@@ -0,0 +1,148 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.config.CacheConfig;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersonReadCacheTest {
+
+    @Mock
+    private PersonRepository repository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Cache cache;
+    private PersonReadCache readCache;
+    private PersonServices services;
+    private Person moises;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        PersonServices target = new PersonServices();
+        target.repository = repository;
+        target.eventPublisher = eventPublisher;
+        target.meterRegistry = new SimpleMeterRegistry();
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PEOPLE_CACHE);
+        cache = cacheManager.getCache(CacheConfig.PEOPLE_CACHE);
+        readCache = new PersonReadCache(cacheManager);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(readCache);
+        services = proxyFactory.getProxy();
+
+        moises = new Person(1L, "Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com", 0L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private static PersonVO at(Person person, long version, String lastName) {
+        PersonVO vo = PersonVO.of(person);
+        vo.setVersion(version);
+        vo.setLastName(lastName);
+        return vo;
+    }
+
+    //The first load reads the row as it is before the update, and only returns once released
+    private Future<Optional<PersonVO>> startLoadReadingTheOldRow() throws InterruptedException {
+        given(repository.findPersonVOById(1L)).willAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return Optional.of(at(moises, 0L, "Dias"));
+        }).willReturn(Optional.of(at(moises, 1L, "Nascimento")));
+        Future<Optional<PersonVO>> load = executor.submit(() -> services.findById(1L));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        return load;
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Person when FindById Twice then Load It Once")
+    void testGivenPerson_whenFindByIdTwice_thenLoadItOnce() {
+        //Given / Arrange
+        given(repository.findPersonVOById(1L)).willReturn(Optional.of(PersonVO.of(moises)));
+        given(repository.findPersonVOById(2L)).willReturn(Optional.empty());
+
+        //When / Act
+        services.findById(1L);
+        PersonVO cached = services.findById(1L).orElseThrow();
+        services.findById(2L);
+        services.findById(2L);
+
+        //Then / Assert
+        assertEquals("Dias", cached.getLastName());
+        verify(repository, times(1)).findPersonVOById(1L);
+        // Misses are not cached
+        verify(repository, times(2)).findPersonVOById(2L);
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Load Reading Before An Update when Update Commits First then Drop The Stale Put")
+    void testGivenLoadReadingBeforeAnUpdate_whenUpdateCommitsFirst_thenDropTheStalePut() throws Exception {
+        //Given / Arrange
+        Future<Optional<PersonVO>> load = startLoadReadingTheOldRow();
+        given(repository.updatePerson(any(Person.class), eq(0L))).willReturn(1);
+
+        //When / Act
+        services.update(new Person(1L, "Moises", "Nascimento", "Campinas - São Paulo", "Male", "m.dias009@gmail.com", null), 0L);
+        release.countDown();
+        PersonVO concurrent = load.get(10, TimeUnit.SECONDS).orElseThrow();
+
+        //Then / Assert
+        // Ran alongside the update, so it may answer with the row it read, but not leave it in the cache
+        assertEquals(0L, concurrent.getVersion());
+        assertNull(cache.get(1L));
+        PersonVO fresh = services.findById(1L).orElseThrow();
+        assertEquals("Nascimento", fresh.getLastName());
+        assertEquals(1L, fresh.getVersion());
+        assertEquals(1L, ((PersonVO) cache.get(1L).get()).getVersion());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Load Reading Before An Import when Evict All then Drop The Stale Put")
+    void testGivenLoadReadingBeforeAnImport_whenEvictAll_thenDropTheStalePut() throws Exception {
+        //Given / Arrange
+        Future<Optional<PersonVO>> load = startLoadReadingTheOldRow();
+
+        //When / Act
+        readCache.evictAll();
+        release.countDown();
+        load.get(10, TimeUnit.SECONDS);
+
+        //Then / Assert
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,168 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersonRequestCoalescerTest {
+
+    private static final int BURST = 20;
+
+    @Mock
+    private PersonRepository repository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(BURST);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PersonRequestCoalescer coalescer;
+    private PersonServices services;
+    private PersonVO moises;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        PersonServices target = new PersonServices();
+        target.repository = repository;
+        target.meterRegistry = meterRegistry;
+        coalescer = new PersonRequestCoalescer(meterRegistry);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(coalescer);
+        services = proxyFactory.getProxy();
+
+        Person person = new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "m.dias009@gmail.com");
+        person.setId(1L);
+        moises = PersonVO.of(person);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("person.coalesced", "method", "findById").count();
+    }
+
+    //Fires the whole burst and lets the query finish only once every other caller is waiting on it
+    private List<Future<Optional<PersonVO>>> burst(Long id) throws InterruptedException {
+        List<Future<Optional<PersonVO>>> calls = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            calls.add(executor.submit(() -> services.findById(id)));
+        }
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (coalesced() < BURST - 1) {
+            assertTrue(System.nanoTime() < deadline, "Only " + coalesced() + " callers coalesced");
+            Thread.sleep(1);
+        }
+        release.countDown();
+        return calls;
+    }
+
+    private void givenQueryBlocksUntilReleased(Optional<PersonVO> result) {
+        given(repository.findPersonVOById(1L)).willAnswer(invocation -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return result;
+        });
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Burst On One Id when FindById then Run One Query And Share Its Result")
+    void testGivenBurstOnOneId_whenFindById_thenRunOneQueryAndShareItsResult() throws Exception {
+        //Given / Arrange
+        givenQueryBlocksUntilReleased(Optional.of(moises));
+
+        //When / Act
+        List<Future<Optional<PersonVO>>> calls = burst(1L);
+
+        //Then / Assert
+        for (Future<Optional<PersonVO>> call : calls) {
+            assertSame(moises, call.get(10, TimeUnit.SECONDS).orElseThrow());
+        }
+        verify(repository, times(1)).findPersonVOById(1L);
+        assertEquals(BURST - 1, coalesced());
+
+        // Nothing is kept once the query is done: the next caller runs a new one
+        services.findById(1L);
+        verify(repository, times(2)).findPersonVOById(1L);
+        assertEquals(0, meterRegistry.get("person.coalescing.in.flight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Failing Query when Burst On One Id then Every Caller Gets The Failure And The Next One Retries")
+    void testGivenFailingQuery_whenBurstOnOneId_thenEveryCallerGetsTheFailureAndTheNextOneRetries() throws Exception {
+        //Given / Arrange
+        QueryTimeoutException timeout = new QueryTimeoutException("Query timed out");
+        given(repository.findPersonVOById(1L)).willAnswer(invocation -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            throw timeout;
+        }).willReturn(Optional.of(moises));
+
+        //When / Act
+        List<Future<Optional<PersonVO>>> calls = burst(1L);
+
+        //Then / Assert
+        for (Future<Optional<PersonVO>> call : calls) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(10, TimeUnit.SECONDS));
+            assertSame(timeout, e.getCause());
+        }
+        verify(repository, times(1)).findPersonVOById(1L);
+        assertSame(moises, services.findById(1L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Query In Flight when Person Changes then Later Callers Run A New Query")
+    void testGivenQueryInFlight_whenPersonChanges_thenLaterCallersRunANewQuery() throws Exception {
+        //Given / Arrange
+        givenQueryBlocksUntilReleased(Optional.of(moises));
+        Future<Optional<PersonVO>> before = executor.submit(() -> services.findById(1L));
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (meterRegistry.get("person.coalescing.in.flight").gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "The first query never started");
+            Thread.sleep(1);
+        }
+
+        //When / Act
+        coalescer.onPersonChanged(PersonChangedEvent.deleted(1L));
+        Future<Optional<PersonVO>> after = executor.submit(() -> services.findById(1L));
+        while (mockingDetails(repository).getInvocations().size() < 2) {
+            assertTrue(System.nanoTime() < deadline, "The second query never started");
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        //Then / Assert
+        assertTrue(before.get(10, TimeUnit.SECONDS).isPresent());
+        assertTrue(after.get(10, TimeUnit.SECONDS).isPresent());
+        verify(repository, times(2)).findPersonVOById(1L);
+        assertEquals(0, coalesced());
+    }
+}
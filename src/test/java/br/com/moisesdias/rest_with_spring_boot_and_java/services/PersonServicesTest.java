@@ -1,18 +1,34 @@
 package br.com.moisesdias.rest_with_spring_boot_and_java.services;
 
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonPageVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.PreconditionFailedException;
 import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ResourceNotFoundException;
 import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
 import br.com.moisesdias.rest_with_spring_boot_and_java.repositories.PersonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -23,6 +39,14 @@ public class PersonServicesTest {
 
     @Mock
     private PersonRepository repository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
     @InjectMocks
     private PersonServices services;
 
@@ -43,8 +67,7 @@ public class PersonServicesTest {
     void testGivenPersonObject_WhenSavePerson_thenReturnPersonObject() {
 
         //Given / Arrange
-        given(repository.findByEmail(anyString())).willReturn(Optional.empty());
-        given(repository.save(person0)).willReturn(person0);
+        given(repository.saveAndFlush(person0)).willReturn(person0);
 
         //When / Act
         Person savedPerson = services.create(person0);
@@ -52,6 +75,7 @@ public class PersonServicesTest {
         //Then / Assert
         assertNotNull(savedPerson);
         assertEquals( "Moises", savedPerson.getFirstName());
+        verify(repository, never()).findByEmail(anyString());
 
     }
 
@@ -60,7 +84,8 @@ public class PersonServicesTest {
     void testGivenExistingEmail_WhenSavePerson_thenThrowsException() {
 
         //Given / Arrange
-        given(repository.findByEmail(anyString())).willReturn(Optional.of(person0));
+        given(repository.saveAndFlush(person0)).willThrow(new DataIntegrityViolationException("Duplicate entry",
+                new ConstraintViolationException("Duplicate entry", new SQLException(), "person.uk_person_email")));
 
         //When / Act
         assertThrows(ResourceNotFoundException.class, () -> {
@@ -68,10 +93,89 @@ public class PersonServicesTest {
         });
 
         //Then / Assert
-        verify(repository, never()).save(any(Person.class));
+        verify(repository, times(1)).saveAndFlush(person0);
+
+    }
+
+    @DisplayName("JUnit test for Given Other Constraint Violation When Save Person then Rethrows Exception")
+    @Test
+    void testGivenOtherConstraintViolation_WhenSavePerson_thenRethrowsException() {
+
+        //Given / Arrange
+        given(repository.saveAndFlush(person0)).willThrow(new DataIntegrityViolationException("Column cannot be null",
+                new ConstraintViolationException("Column cannot be null", new SQLException(), null)));
+
+        //When / Act
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            services.create(person0);
+        });
 
     }
 
+    @DisplayName("JUnit test for Given Batch With Existing and Duplicated Emails When CreateAll then Report Each Item")
+    @Test
+    void testGivenBatchWithExistingAndDuplicatedEmails_WhenCreateAll_thenReportEachItem() {
+
+        //Given / Arrange
+        Person person1 = new Person("Marcos",
+                "Araujo",
+                "São Paulo - São Paulo",
+                "Male",
+                "maraujo@gmail.com");
+        Person person2 = new Person("Beatriz",
+                "Dias",
+                "Campinas - São Paulo",
+                "Female",
+                "m.dias009@gmail.com");
+        Person invalid = new Person("", "Dias", "Campinas - São Paulo", "Female", "bia@gmail.com");
+
+        given(repository.findExistingEmails(anyCollection())).willReturn(Set.of("maraujo@gmail.com"));
+        given(repository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Person> people = invocation.getArgument(0);
+            people.forEach(person -> person.setId(10L));
+            return people;
+        });
+
+        //When / Act
+        List<BatchItemResultVO> results = services.createAll(List.of(person0, person1, person2, invalid));
+
+        //Then / Assert
+        assertEquals(4, results.size());
+        assertEquals(BatchItemResultVO.Status.CREATED, results.get(0).getStatus());
+        assertEquals(10L, results.get(0).getId());
+        assertEquals(BatchItemResultVO.Status.FAILED, results.get(1).getStatus());
+        assertEquals(BatchItemResultVO.Status.FAILED, results.get(2).getStatus());
+        assertEquals(BatchItemResultVO.Status.FAILED, results.get(3).getStatus());
+        assertTrue(results.get(3).getMessage().startsWith("firstName"));
+        verify(repository, times(1)).findExistingEmails(anyCollection());
+        verify(entityManager, times(1)).flush();
+
+    }
+
+    @DisplayName("JUnit test for Given Batch With Emails Differing Only In Case When CreateAll then Report Them As Duplicates")
+    @Test
+    void testGivenBatchWithEmailsDifferingOnlyInCase_WhenCreateAll_thenReportThemAsDuplicates() {
+
+        //Given / Arrange
+        Person existing = new Person("Marcos", "Araujo", "São Paulo - São Paulo", "Male", "MAraujo@gmail.com");
+        Person sameInBatch = new Person("Moises", "Dias", "Campinas - São Paulo", "Male", "M.Dias009@Gmail.com");
+
+        // As MySQL's case-insensitive collation answers it: the stored e-mail, in its stored case
+        given(repository.findExistingEmails(anyCollection())).willReturn(Set.of("maraujo@gmail.com"));
+        given(repository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        //When / Act
+        List<BatchItemResultVO> results = services.createAll(List.of(person0, existing, sameInBatch));
+
+        //Then / Assert
+        assertEquals(BatchItemResultVO.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemResultVO.Status.FAILED, results.get(1).getStatus());
+        assertEquals(BatchItemResultVO.Status.FAILED, results.get(2).getStatus());
+        verify(repository).findExistingEmails(argThat(emails -> emails.containsAll(
+                List.of("MAraujo@gmail.com", "maraujo@gmail.com", "M.Dias009@Gmail.com", "m.dias009@gmail.com"))));
+        verify(repository).saveAll(List.of(person0));
+    }
+
     @DisplayName("JUnit test for Given Persons List When Return Persons List")
     @Test
     void testGivenPersonsList_WhenFindAllPersons_thenReturnPersonsList() {
@@ -83,9 +187,9 @@ public class PersonServicesTest {
                 "Male",
                 "maraujo@gmail.com");
 
-        given(repository.findAll()).willReturn(List.of(person0, person1));
+        given(repository.findAllPersonVO()).willReturn(List.of(PersonVO.of(person0), PersonVO.of(person1)));
         //When / Act
-        List<Person> personsList = services.findAll();
+        List<PersonVO> personsList = services.findAll();
 
         //Then / Assert
         assertNotNull(personsList);
@@ -98,9 +202,9 @@ public class PersonServicesTest {
     void testGivenEmptyPersonsList_WhenFindAllPersons_thenReturnEmptyPersonsList() {
 
         //Given / Arrange
-        given(repository.findAll()).willReturn(Collections.emptyList());
+        given(repository.findAllPersonVO()).willReturn(Collections.emptyList());
         //When / Act
-        List<Person> personsList = services.findAll();
+        List<PersonVO> personsList = services.findAll();
 
         //Then / Assert
         assertNotNull(personsList.isEmpty());
@@ -108,15 +212,56 @@ public class PersonServicesTest {
 
     }
 
+    @DisplayName("JUnit test for Given More Rows Than Limit When FindPage then Return Next Cursor")
+    @Test
+    void testGivenMoreRowsThanLimit_WhenFindPage_thenReturnNextCursor() {
+
+        //Given / Arrange
+        person0.setId(1L);
+        Person person1 = new Person("Marcos",
+                "Araujo",
+                "São Paulo - São Paulo",
+                "Male",
+                "maraujo@gmail.com");
+        person1.setId(2L);
+        given(repository.findPersonVOByIdGreaterThan(0L, Limit.of(2)))
+                .willReturn(List.of(PersonVO.of(person0), PersonVO.of(person1)));
+
+        //When / Act
+        PersonPageVO page = services.findPage(null, 1);
+
+        //Then / Assert
+        assertEquals(1, page.getContent().size());
+        assertEquals(1L, page.getNextCursor());
+
+    }
+
+    @DisplayName("JUnit test for Given Last Page When FindPage then Return Null Next Cursor")
+    @Test
+    void testGivenLastPage_WhenFindPage_thenReturnNullNextCursor() {
+
+        //Given / Arrange
+        person0.setId(5L);
+        given(repository.findPersonVOByIdGreaterThan(4L, Limit.of(11))).willReturn(List.of(PersonVO.of(person0)));
+
+        //When / Act
+        PersonPageVO page = services.findPage(4L, 10);
+
+        //Then / Assert
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+
+    }
+
     @DisplayName("JUnit test for Given PersonId When FindById then Return Person Object")
     @Test
     void testGivenPersonId_WhenFindById_thenReturnPersonObject() {
 
         //Given / Arrange
-        given(repository.findById(anyLong())).willReturn(Optional.of(person0));
+        given(repository.findPersonVOById(anyLong())).willReturn(Optional.of(PersonVO.of(person0)));
 
         //When / Act
-        Person savedPerson = services.findById(1L);
+        PersonVO savedPerson = services.findById(1L).orElseThrow();
 
         //Then / Assert
         assertNotNull(savedPerson);
@@ -124,25 +269,97 @@ public class PersonServicesTest {
 
     }
 
+    @DisplayName("JUnit test for Given Unexistent PersonId When FindById then Return Empty")
+    @Test
+    void testGivenUnexistentPersonId_WhenFindById_thenReturnEmpty() {
+
+        //Given / Arrange
+        given(repository.findPersonVOById(anyLong())).willReturn(Optional.empty());
+
+        //When / Act
+        Optional<PersonVO> person = services.findById(1L);
+
+        //Then / Assert
+        assertTrue(person.isEmpty());
+        assertEquals(1, meterRegistry.counter("person.not.found", "method", "findById").count());
+
+    }
+
     @DisplayName("JUnit test for Given Person Object When Update Person then Return Updated Person Object")
     @Test
     void testGivenPersonObject_WhenUpdatePerson_thenReturnUpdatedPersonObject() {
 
         //Given / Arrange
         person0.setId(1L);
-        given(repository.findById(anyLong())).willReturn(Optional.of(person0));
-
         person0.setEmail("maraujo@gmail.com");
         person0.setFirstName("Marcos");
 
-        given(repository.save(person0)).willReturn(person0);
+        given(repository.updatePerson(person0, null)).willReturn(1);
+        given(repository.findVersionById(1L)).willReturn(3L);
 
         //When / Act
-        Person UpdatedPerson = services.update(person0);
+        Person UpdatedPerson = services.update(person0, null).orElseThrow();
 
         //Then / Assert
         assertNotNull(UpdatedPerson);
         assertEquals( "Marcos", UpdatedPerson.getFirstName());
+        // Read back before the change is published, so it carries the version too
+        assertEquals(3L, UpdatedPerson.getVersion());
+        verify(eventPublisher).publishEvent(argThat((PersonChangedEvent event) -> Long.valueOf(3L).equals(event.person().getVersion())));
+        verify(repository, never()).findById(anyLong());
+        verify(repository, never()).save(any(Person.class));
+
+    }
+
+    @DisplayName("JUnit test for Given Unexistent Person When Update Person then Return Empty")
+    @Test
+    void testGivenUnexistentPerson_WhenUpdatePerson_thenReturnEmpty() {
+
+        //Given / Arrange
+        person0.setId(1L);
+        given(repository.updatePerson(person0, null)).willReturn(0);
+
+        //When / Act
+        Optional<Person> updatedPerson = services.update(person0, null);
+
+        //Then / Assert
+        assertTrue(updatedPerson.isEmpty());
+        assertEquals(1, meterRegistry.counter("person.not.found", "method", "update").count());
+
+    }
+
+    @DisplayName("JUnit test for Given Expected Version When Update Person then Return Next Version")
+    @Test
+    void testGivenExpectedVersion_WhenUpdatePerson_thenReturnNextVersion() {
+
+        //Given / Arrange
+        person0.setId(1L);
+        given(repository.updatePerson(person0, 3L)).willReturn(1);
+
+        //When / Act
+        Person updatedPerson = services.update(person0, 3L).orElseThrow();
+
+        //Then / Assert
+        assertEquals(4L, updatedPerson.getVersion());
+
+    }
+
+    @DisplayName("JUnit test for Given Stale Version When Update Person then Throws PreconditionFailedException")
+    @Test
+    void testGivenStaleVersion_WhenUpdatePerson_thenThrowsPreconditionFailedException() {
+
+        //Given / Arrange
+        person0.setId(1L);
+        given(repository.updatePerson(person0, 3L)).willReturn(0);
+        given(repository.existsById(1L)).willReturn(true);
+
+        //When / Act
+        assertThrows(PreconditionFailedException.class, () -> {
+            services.update(person0, 3L);
+        });
+
+        //Then / Assert
+        assertEquals(0, meterRegistry.counter("person.not.found", "method", "update").count());
 
     }
 
@@ -152,14 +369,28 @@ public class PersonServicesTest {
 
         //Given / Arrange
         person0.setId(1L);
-        given(repository.findById(anyLong())).willReturn(Optional.of(person0));
-        willDoNothing().given(repository).delete(person0);
+        given(repository.deletePersonById(1L)).willReturn(1);
 
         //When / Act
         services.delete(person0.getId());
 
         //Then / Assert
-        verify(repository, times(1)).delete(person0);
+        verify(repository, times(1)).deletePersonById(1L);
+        verify(repository, never()).findById(anyLong());
+
+    }
+
+    @DisplayName("JUnit test for Given Unexistent PersonID When Delete Person then Throws Exception")
+    @Test
+    void testGivenUnexistentPersonID_WhenDeletePerson_thenThrowsException() {
+
+        //Given / Arrange
+        given(repository.deletePersonById(1L)).willReturn(0);
+
+        //When / Act
+        assertThrows(ResourceNotFoundException.class, () -> {
+            services.delete(1L);
+        });
 
     }
 }
\ No newline at end of file
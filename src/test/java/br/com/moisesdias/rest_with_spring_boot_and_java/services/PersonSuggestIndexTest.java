@@ -0,0 +1,75 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonSuggestionVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersonSuggestIndexTest {
+
+    private PersonSuggestIndex index;
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        index = new PersonSuggestIndex();
+        index.put(new PersonSuggestionVO(1L, "Moises", "Dias", "m.dias009@gmail.com"));
+        index.put(new PersonSuggestionVO(2L, "Leonardo", "Dias", "leonardo@gmail.com"));
+        index.put(new PersonSuggestionVO(3L, "Beatriz", "São João", "beatriz@gmail.com"));
+    }
+
+    private List<Long> suggest(String query) {
+        return index.suggest(query, 10).stream().map(PersonSuggestionVO::getId).sorted().toList();
+    }
+
+    @DisplayName("JUnit test for Given Prefix when Suggest then Match First Name, Last Name and Email")
+    @Test
+    void testGivenPrefix_whenSuggest_thenMatchFirstNameLastNameAndEmail() {
+
+        //When / Act / Then / Assert
+        assertEquals(List.of(1L), suggest("moi"));
+        assertEquals(List.of(1L, 2L), suggest("DI"));
+        assertEquals(List.of(1L), suggest("m.dias"));
+        assertEquals(List.of(1L, 2L, 3L), suggest("gmail"));
+        assertEquals(List.of(), suggest("x"));
+        assertEquals(List.of(), suggest("  "));
+    }
+
+    @DisplayName("JUnit test for Given Accents And Several Words when Suggest then Match Every Word Ignoring Accents")
+    @Test
+    void testGivenAccentsAndSeveralWords_whenSuggest_thenMatchEveryWordIgnoringAccents() {
+
+        //When / Act / Then / Assert
+        assertEquals(List.of(3L), suggest("sao"));
+        assertEquals(List.of(3L), suggest("joão bea"));
+        assertEquals(List.of(2L), suggest("dias, leo"));
+        assertEquals(List.of(), suggest("dias bea"));
+    }
+
+    @DisplayName("JUnit test for Given Updated And Removed People when Suggest then Reflect The Changes")
+    @Test
+    void testGivenUpdatedAndRemovedPeople_whenSuggest_thenReflectTheChanges() {
+
+        //When / Act
+        index.put(new PersonSuggestionVO(1L, "Mateus", "Dias", "m.dias009@gmail.com"));
+        index.remove(2L);
+
+        //Then / Assert
+        assertEquals(List.of(), suggest("moi"));
+        assertEquals(List.of(1L), suggest("mat"));
+        assertEquals(List.of(1L), suggest("dias"));
+        assertEquals(2, index.size());
+    }
+
+    @DisplayName("JUnit test for Given Limit when Suggest then Return At Most Limit People")
+    @Test
+    void testGivenLimit_whenSuggest_thenReturnAtMostLimitPeople() {
+
+        //When / Act / Then / Assert
+        assertEquals(2, index.suggest("gmail", 2).size());
+    }
+}
@@ -0,0 +1,264 @@
+package br.com.moisesdias.rest_with_spring_boot_and_java.services;
+
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.BatchItemResultVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.data.vo.v1.PersonWriteStatusVO;
+import br.com.moisesdias.rest_with_spring_boot_and_java.exceptions.ServiceUnavailableException;
+import br.com.moisesdias.rest_with_spring_boot_and_java.models.Person;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersonWriteBehindQueueTest {
+
+    @Mock
+    private PersonServices services;
+
+    @Captor
+    private ArgumentCaptor<List<Person>> batches;
+
+    @TempDir
+    private Path directory;
+
+    private Path journal;
+    private final List<PersonWriteBehindQueue> started = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        //Given / Arrange
+        journal = directory.resolve("person-writes.ndjson");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        started.forEach(PersonWriteBehindQueue::stop);
+    }
+
+    private PersonWriteBehindQueue queue(int capacity, int batchSize) throws IOException {
+        return queue(capacity, batchSize, Duration.ofHours(1));
+    }
+
+    private PersonWriteBehindQueue queue(int capacity, int batchSize, Duration statusRetention) throws IOException {
+        return new PersonWriteBehindQueue(services, new ObjectMapper(), journal, capacity, batchSize,
+                Duration.ofMillis(100), statusRetention, DataSize.ofMegabytes(16), Duration.ofSeconds(1),
+                new SimpleMeterRegistry());
+    }
+
+    private PersonWriteBehindQueue start(PersonWriteBehindQueue queue) {
+        started.add(queue);
+        queue.start();
+        return queue;
+    }
+
+    private static Person person(String firstName) {
+        return new Person(firstName, "Dias", "Campinas - São Paulo", "Male", firstName.toLowerCase() + "@gmail.com");
+    }
+
+    //Every person of the batch is created, with ids in submission order
+    private void givenCreateAllSucceeds() {
+        given(services.createAll(anyList())).willAnswer(invocation -> {
+            List<Person> people = invocation.getArgument(0);
+            List<BatchItemResultVO> results = new ArrayList<>();
+            for (int i = 0; i < people.size(); i++) {
+                results.add(BatchItemResultVO.created(i, (long) i + 1, people.get(i).getEmail()));
+            }
+            return results;
+        });
+    }
+
+    private static PersonWriteStatusVO awaitOutcome(PersonWriteBehindQueue queue, String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            PersonWriteStatusVO status = queue.findStatus(trackingId).orElseThrow();
+            if (status.getStatus() != PersonWriteStatusVO.Status.QUEUED) return status;
+            assertTrue(System.nanoTime() < deadline, "No outcome for " + trackingId);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Accepted Writes and a Crash when Restart then Replay Only The Unfinished Ones")
+    void testGivenAcceptedWritesAndACrash_whenRestart_thenReplayOnlyTheUnfinishedOnes() throws Exception {
+        //Given / Arrange
+        PersonWriteBehindQueue crashed = queue(10, 10);
+        List<String> trackingIds = new ArrayList<>();
+        for (String firstName : List.of("Moises", "Leonardo", "Beatriz")) {
+            trackingIds.add(crashed.accept(person(firstName)).getTrackingId());
+        }
+        // The worker never ran, and the process died halfway through a fourth append
+        Files.writeString(journal, "{\"type\":\"accepted\",\"trackingId\":\"torn\",\"per",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        givenCreateAllSucceeds();
+
+        //When / Act
+        PersonWriteBehindQueue restarted = start(queue(10, 10));
+        List<PersonWriteStatusVO> outcomes = new ArrayList<>();
+        for (String trackingId : trackingIds) {
+            outcomes.add(awaitOutcome(restarted, trackingId));
+        }
+        restarted.stop();
+
+        //Then / Assert
+        verify(services).createAll(batches.capture());
+        assertEquals(List.of("Moises", "Leonardo", "Beatriz"), batches.getValue().stream().map(Person::getFirstName).toList());
+        assertEquals(List.of(PersonWriteStatusVO.Status.CREATED, PersonWriteStatusVO.Status.CREATED, PersonWriteStatusVO.Status.CREATED),
+                outcomes.stream().map(PersonWriteStatusVO::getStatus).toList());
+        assertEquals(3L, outcomes.get(2).getId());
+
+        // Every outcome was journaled: a second restart has nothing to replay
+        PersonWriteBehindQueue again = queue(10, 10);
+        assertTrue(again.findStatus(trackingIds.get(0)).isEmpty());
+        assertEquals(0, Files.size(journal));
+        verifyNoMoreInteractions(services);
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Queued Writes when Worker Runs then Create Them In Batches Of Batch Size")
+    void testGivenQueuedWrites_whenWorkerRuns_thenCreateThemInBatchesOfBatchSize() throws Exception {
+        //Given / Arrange
+        PersonWriteBehindQueue queue = queue(10, 2);
+        List<String> trackingIds = new ArrayList<>();
+        for (String firstName : List.of("Ana", "Bia", "Caio", "Davi", "Enzo")) {
+            trackingIds.add(queue.accept(person(firstName)).getTrackingId());
+        }
+        givenCreateAllSucceeds();
+
+        //When / Act
+        start(queue);
+        for (String trackingId : trackingIds) {
+            awaitOutcome(queue, trackingId);
+        }
+
+        //Then / Assert
+        verify(services, times(3)).createAll(batches.capture());
+        assertEquals(List.of(2, 2, 1), batches.getAllValues().stream().map(List::size).toList());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Status Retention when Write Stays Queued Past It then Keep Status Until The Outcome Expires")
+    void testGivenStatusRetention_whenWriteStaysQueuedPastIt_thenKeepStatusUntilTheOutcomeExpires() throws Exception {
+        //Given / Arrange
+        PersonWriteBehindQueue queue = queue(10, 10, Duration.ofMillis(50));
+        String trackingId = queue.accept(person("Moises")).getTrackingId();
+        givenCreateAllSucceeds();
+
+        //When / Act
+        Thread.sleep(150);
+        Optional<PersonWriteStatusVO> queued = queue.findStatus(trackingId);
+        start(queue);
+        PersonWriteStatusVO outcome = awaitOutcome(queue, trackingId);
+        Thread.sleep(150);
+
+        //Then / Assert
+        assertEquals(PersonWriteStatusVO.Status.QUEUED, queued.orElseThrow().getStatus());
+        assertEquals(PersonWriteStatusVO.Status.CREATED, outcome.getStatus());
+        assertTrue(queue.findStatus(trackingId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Full Queue when Accept then Throw ServiceUnavailableException")
+    void testGivenFullQueue_whenAccept_thenThrowServiceUnavailableException() throws Exception {
+        //Given / Arrange
+        PersonWriteBehindQueue queue = queue(2, 10);
+        queue.accept(person("Moises"));
+        queue.accept(person("Leonardo"));
+
+        //When / Act / Then / Assert
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class, () -> queue.accept(person("Beatriz")));
+        assertEquals(Duration.ofSeconds(1), e.getRetryAfter());
+        assertEquals(2, Files.readAllLines(journal).size());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Failing Batch when Worker Runs then Retry Transient Errors And Isolate The Rest")
+    void testGivenFailingBatch_whenWorkerRuns_thenRetryTransientErrorsAndIsolateTheRest() throws Exception {
+        //Given / Arrange
+        PersonWriteBehindQueue queue = queue(10, 10);
+        String moises = queue.accept(person("Moises")).getTrackingId();
+        String leonardo = queue.accept(person("Leonardo")).getTrackingId();
+        given(services.createAll(anyList()))
+                .willThrow(new CannotCreateTransactionException("database down"))
+                .willThrow(new IllegalStateException("bad batch"))
+                .willThrow(new IllegalStateException("bad person"))
+                .willReturn(List.of(BatchItemResultVO.created(0, 7L, "leonardo@gmail.com")));
+
+        //When / Act
+        start(queue);
+        PersonWriteStatusVO failed = awaitOutcome(queue, moises);
+        PersonWriteStatusVO created = awaitOutcome(queue, leonardo);
+
+        //Then / Assert
+        verify(services, times(4)).createAll(anyList());
+        assertEquals(PersonWriteStatusVO.Status.FAILED, failed.getStatus());
+        assertEquals("bad person", failed.getMessage());
+        assertEquals(PersonWriteStatusVO.Status.CREATED, created.getStatus());
+        assertEquals(7L, created.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Write Committed Before a Crash when Replay Fails As Duplicate then Report It Created")
+    void testGivenWriteCommittedBeforeACrash_whenReplayFailsAsDuplicate_thenReportItCreated() throws Exception {
+        //Given / Arrange
+        PersonWriteBehindQueue crashed = queue(10, 10);
+        String moises = crashed.accept(person("Moises")).getTrackingId();
+        String leonardo = crashed.accept(person("Leonardo")).getTrackingId();
+        given(services.createAll(anyList())).willReturn(List.of(
+                BatchItemResultVO.failed(0, "moises@gmail.com", "Person already exist with give e-mail: moises@gmail.com"),
+                BatchItemResultVO.failed(1, "leonardo@gmail.com", "Person already exist with give e-mail: leonardo@gmail.com")));
+        Person stored = person("Moises");
+        stored.setId(5L);
+        stored.setVersion(0L);
+        Person someoneElse = person("Leonardo");
+        someoneElse.setLastName("Costa");
+        given(services.findByEmail("moises@gmail.com")).willReturn(Optional.of(stored));
+        given(services.findByEmail("leonardo@gmail.com")).willReturn(Optional.of(someoneElse));
+
+        //When / Act
+        PersonWriteBehindQueue restarted = start(queue(10, 10));
+        PersonWriteStatusVO replayed = awaitOutcome(restarted, moises);
+        PersonWriteStatusVO taken = awaitOutcome(restarted, leonardo);
+
+        //Then / Assert
+        assertEquals(PersonWriteStatusVO.Status.CREATED, replayed.getStatus());
+        assertEquals(5L, replayed.getId());
+        // The e-mail was taken by a different person, so the replay did fail
+        assertEquals(PersonWriteStatusVO.Status.FAILED, taken.getStatus());
+    }
+
+    @Test
+    @DisplayName("JUnit test for Given Web Server Lifecycles when Get Phase then Stop After Them")
+    void testGivenWebServerLifecycles_whenGetPhase_thenStopAfterThem() throws Exception {
+        //When / Act
+        int phase = queue(10, 10).getPhase();
+
+        //Then / Assert
+        // Lifecycles stop from the highest phase down; the web server stops at SMART_LIFECYCLE_PHASE - 1024
+        assertTrue(phase < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+}